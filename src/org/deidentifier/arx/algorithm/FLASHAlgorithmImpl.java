@@ -17,12 +17,24 @@
 
 package org.deidentifier.arx.algorithm;
 
-import java.util.ArrayList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.PriorityQueue;
 
+import org.deidentifier.arx.algorithm.FLASHListener.Operation;
+import org.deidentifier.arx.algorithm.FLASHListener.SkipReason;
 import org.deidentifier.arx.algorithm.FLASHPhaseConfiguration.PhaseAnonymityProperty;
 import org.deidentifier.arx.framework.check.NodeChecker;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -35,6 +47,7 @@ import org.deidentifier.arx.metric.InformationLossWithBound;
 import cern.colt.GenericSorting;
 import cern.colt.Swapper;
 import cern.colt.function.IntComparator;
+import cern.colt.list.IntArrayList;
 import cern.colt.list.LongArrayList;
 import de.linearbits.jhpl.PredictiveProperty;
 
@@ -46,6 +59,29 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
+    /**
+     * A candidate for pruning transformations with insufficient utility.
+     *
+     * @author Fabian Prasser
+     */
+    private static class PruningCandidate {
+
+        /** The lower bound */
+        private final InformationLoss<?> lowerBound;
+        /** The identifier */
+        private final int                identifier;
+
+        /**
+         * Creates a new instance
+         *
+         * @param transformation
+         */
+        private PruningCandidate(Transformation transformation) {
+            this.lowerBound = transformation.getLowerBound();
+            this.identifier = (int) transformation.getIdentifier();
+        }
+    }
+
     /** Hook for benchmarking purposes*/
     private static boolean useLowerBound = true;
     
@@ -57,21 +93,155 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         useLowerBound = use;
     }
 
+    /** Hook for benchmarking purposes*/
+    private static int     successorCacheSize = 1 << 20;
+    
+    /** 
+     * Hook for benchmarking purposes. Sets the maximal number of transformations for which
+     * sorted successors are cached. Rounded up to the next power of two.
+     * @param size
+     */
+    public static void hookSetSuccessorCacheSize(int size) {
+        if (size <= 0 || size > 1 << 30) {
+            throw new IllegalArgumentException("Invalid cache size: " + size);
+        }
+        successorCacheSize = size;
+    }
+
+    /** Version of the checkpoint format */
+    private static final int CHECKPOINT_VERSION = 2;
+
+    /** Hook for benchmarking purposes*/
+    private static File    checkpointFile     = null;
+
+    /** Hook for benchmarking purposes*/
+    private static long    checkpointInterval = 0;
+
+    /** Hook for benchmarking purposes*/
+    private static File    resumeFile         = null;
+
+    /** 
+     * Hook for benchmarking purposes. Periodically writes the state of the traversal of subsequently
+     * created instances to the given file. Checkpoints are written whenever no path is being processed,
+     * if at least the given number of milliseconds has passed since the last checkpoint.
+     * @param file The file, null disables checkpointing
+     * @param interval The interval in milliseconds
+     */
+    public static void hookSetCheckpoint(File file, long interval) {
+        checkpointFile = file;
+        checkpointInterval = interval;
+    }
+
+    /** 
+     * Hook for benchmarking purposes. Resumes the traversal of subsequently created instances from the
+     * given checkpoint, until a traversal has been resumed successfully. The traversal must be performed
+     * on the same solution space and configuration, which is validated as far as possible.
+     * @param file The file, null disables resuming
+     */
+    public static void hookSetResume(File file) {
+        resumeFile = file;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static long               timeLimit  = 0;
+
+    /** Hook for benchmarking purposes*/
+    private static int                checkLimit = 0;
+
+    /** 
+     * Hook for benchmarking purposes. Stops the traversal after the given number of milliseconds.
+     * The best transformation found so far is returned as the optimum.
+     * @param millis The limit, 0 disables it
+     */
+    public static void hookSetTimeLimit(long millis) {
+        timeLimit = millis;
+    }
+
+    /** 
+     * Hook for benchmarking purposes. Stops the traversal after the given number of checks.
+     * The best transformation found so far is returned as the optimum.
+     * @param checks The limit, 0 disables it
+     */
+    public static void hookSetCheckLimit(int checks) {
+        checkLimit = checks;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static int     lowerBoundLevels  = 0;
+
+    /** 
+     * Hook for benchmarking purposes. Computes lower bounds for the transformations on the given
+     * number of lowest levels before the search starts, so that the search only has to compare them.
+     * Bounds are computed sequentially with the metric of the node checker.
+     * @param levels The number of levels, 0 disables the pre-pass
+     */
+    public static void hookSetLowerBoundPrecomputation(int levels) {
+        lowerBoundLevels = levels;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static FLASHListener listener = null;
+
+    /** 
+     * Hook for benchmarking purposes. Sets a listener, which is notified about the time spent in
+     * operations of subsequently created instances and about skipped transformations.
+     * @param listener The listener, null disables instrumentation
+     */
+    public static void hookSetListener(FLASHListener listener) {
+        FLASHAlgorithmImpl.listener = listener;
+    }
+
     /** Configuration for the algorithm's phases. */
     protected final FLASHConfiguration config;
 
-    /** Are the pointers for a node with id 'index' already sorted?. */
+    /** Identifiers of the transformations with cached successors, -1 if a slot is empty. */
+    private final int[]                sortedSuccessorsKeys;
+
+    /** Cached sorted successors, a direct-mapped cache indexed by the identifier. */
     private final int[][]              sortedSuccessors;
 
     /** The strategy. */
     private final FLASHStrategy        strategy;
 
-    /** List of nodes that may be used for pruning transformations with insufficient utility. */
-    private final List<Integer>        potentiallyInsufficientUtility;
+    /** Nodes that may be pruned because of insufficient utility, the node with the highest lower bound first. */
+    private final PriorityQueue<PruningCandidate> potentiallyInsufficientUtility;
 
     /** The number of checked transformations */
     private int                        checked = 0;
 
+    /** Whether the traversal covered the whole solution space. */
+    private boolean                    complete   = true;
+
+    /** Lower bound on the information loss of transformations which have not been processed. */
+    private InformationLoss<?>         lowerBound = null;
+
+    /** Time at which the traversal is stopped, 0 if there is no limit. */
+    private long                       deadline  = 0;
+
+    /** Whether the budget of the traversal is exhausted. */
+    private boolean                    exhausted = false;
+
+    /** The listener, if any. */
+    private final FLASHListener        instrumentation;
+
+    /** Transformations which have been reported as skipped, if there is a listener. */
+    private final BitSet               skippedTransformations;
+
+    /** Transformations with properties, information loss or lower bounds, if checkpointing is enabled. */
+    private final BitSet               touched;
+
+    /** The file to which checkpoints are written, if any. */
+    private final File                 checkpoint;
+
+    /** The minimal interval between two checkpoints in milliseconds. */
+    private final long                 checkpointPeriod;
+
+    /** Time at which the last checkpoint was written. */
+    private long                       lastCheckpoint = 0;
+
+    /** The checkpoint from which the traversal is resumed, if any. */
+    private final File                 resume;
+
     /**
      * Creates a new instance.
      *
@@ -84,18 +254,31 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                               NodeChecker checker,
                               FLASHStrategy strategy,
                               FLASHConfiguration config) {
-
         super(solutionSpace, checker);
         if (solutionSpace.getSize() > Integer.MAX_VALUE) {
             throw new IllegalArgumentException();
         }
+        this.instrumentation = listener;
+        this.skippedTransformations = listener != null ? new BitSet() : null;
+        this.checkpoint = checkpointFile;
+        this.checkpointPeriod = checkpointInterval;
+        this.resume = resumeFile;
+        this.touched = checkpoint != null ? new BitSet() : null;
         this.checked = 0;
         this.solutionSpace.setAnonymityPropertyPredictable(config.isAnonymityPropertyPredicable());
         this.strategy = strategy;
-        this.sortedSuccessors = new int[(int)solutionSpace.getSize()][];
+        int capacity = Integer.highestOneBit((int)Math.max(1, Math.min(solutionSpace.getSize(), successorCacheSize)) - 1) << 1;
+        this.sortedSuccessorsKeys = new int[Math.max(capacity, 1)];
+        this.sortedSuccessors = new int[sortedSuccessorsKeys.length][];
+        Arrays.fill(this.sortedSuccessorsKeys, -1);
         this.config = config;
         this.potentiallyInsufficientUtility = this.config.isPruneInsufficientUtility() ? 
-                                              new LinkedList<Integer>() : null;
+                                              new PriorityQueue<PruningCandidate>(11, new Comparator<PruningCandidate>() {
+                                                  @Override
+                                                  public int compare(PruningCandidate o1, PruningCandidate o2) {
+                                                      return o2.lowerBound.compareTo(o1.lowerBound);
+                                                  }
+                                              }) : null;
     }
 
     @Override
@@ -113,28 +296,69 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         checker.getHistory().setStorageStrategy(config.getSnapshotStorageStrategy());
 
         // Initialize
-        PriorityQueue<Integer> queue = new PriorityQueue<Integer>(solutionSpace.getTop().getLevel() + 1, strategy);
+        FLASHPriorityQueue queue = new FLASHPriorityQueue(solutionSpace.getTop().getLevel() + 1, strategy);
         Transformation bottom = solutionSpace.getBottom();
         Transformation top = solutionSpace.getTop();
 
         // Check bottom for speed and remember the result to prevent repeated checks
-        NodeChecker.Result result = checker.check(bottom);
+        NodeChecker.Result result = check(bottom);
         bottom.setProperty(solutionSpace.getPropertyForceSnapshot());
         bottom.setData(result);
 
+        // Resume
+        int start = bottom.getLevel();
+        if (resume != null) {
+            start = readCheckpoint(resume);
+
+            // Resume only once
+            if (resumeFile == resume) {
+                resumeFile = null;
+            }
+        }
+        lastCheckpoint = System.currentTimeMillis();
+
+        // Compute lower bounds in advance
+        if (lowerBoundLevels > 0 && useLowerBound && potentiallyInsufficientUtility != null &&
+            !checker.getConfiguration().isPracticalMonotonicity()) {
+            computeLowerBounds(start, (int) Math.min(top.getLevel(), (long) start + lowerBoundLevels - 1));
+        }
+
+        // Budget
+        exhausted = false;
+        deadline = timeLimit > 0 ? System.currentTimeMillis() + timeLimit : 0;
+
         // For each node in the lattice
-        for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
+        outer: for (int level = start; level <= top.getLevel(); level++) {
             for (int transformation : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
 
+                // Stop, if the budget is exhausted
+                if (isBudgetExhausted()) {
+                    break outer;
+                }
+
                 // Run the correct phase
                 if (config.isBinaryPhaseRequired()) {
-                    binarySearch(transformation, queue);
+                    binarySearch(transformation, queue, level);
                 } else {
                     linearSearch(transformation);
                 }
+
+                // Checkpoint
+                checkpoint(level);
             }
         }
 
+        // Bound the distance to the optimum
+        complete = !exhausted;
+        if (complete) {
+            lowerBound = getGlobalOptimum() != null ? getGlobalOptimum().getInformationLoss() : null;
+        } else {
+            lowerBound = getLowerBoundOfUnprocessedNodes(start, outerLoopConfiguration.getTriggerSkip());
+        }
+        if (instrumentation != null) {
+            instrumentation.traversed(complete, lowerBound);
+        }
+
         // Potentially allows to better estimate utility in the lattice
         computeUtilityForMonotonicMetrics(bottom);
         computeUtilityForMonotonicMetrics(top);
@@ -148,29 +372,55 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         }
     }
 
+    /**
+     * Returns a lower bound on the information loss of all transformations which were not
+     * processed by the traversal. The difference to the information loss of the optimum bounds
+     * the distance to the real optimum. Returns the information loss of the optimum if the
+     * traversal was complete and null if no bound is known.
+     *
+     * @return
+     */
+    public InformationLoss<?> getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Returns whether the traversal covered the whole solution space, i.e. whether the optimum
+     * is guaranteed to be optimal. Traversals are incomplete if a time or check limit is exceeded.
+     *
+     * @return
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
     /**
      * Implements the FLASH algorithm (without outer loop).
      *
      * @param start
      * @param queue
+     * @param level The level of the outer loop
      */
-    private void binarySearch(int start, PriorityQueue<Integer> queue) {
+    private void binarySearch(int start, FLASHPriorityQueue queue, int level) {
 
         // Obtain node action
         DependentAction triggerSkip = config.getBinaryPhaseConfiguration().getTriggerSkip();
 
+        // Buffer for paths
+        IntArrayList path = new IntArrayList();
+
         // Add to queue
         queue.add(start);
 
         // While queue is not empty
-        while (!queue.isEmpty()) {
+        while (!queue.isEmpty() && !isBudgetExhausted()) {
 
             // Remove head and process
-            Integer head = queue.poll();
+            int head = queue.poll();
             if (!skip(triggerSkip, solutionSpace.getTransformation(head))) {
 
                 // First phase
-                List<Integer> path = findPath(head, triggerSkip);
+                findPath(head, triggerSkip, path);
                 head = checkPath(path, triggerSkip, queue);
 
                 // Second phase
@@ -180,9 +430,41 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                     linearSearch(head);
                 }
             }
+
+            // Checkpoint
+            checkpoint(level);
+        }
+    }
+
+    /**
+     * Writes a checkpoint, if checkpointing is enabled and the interval has passed. Must only be
+     * called while no path is being processed.
+     *
+     * @param level The level of the outer loop
+     */
+    private void checkpoint(int level) {
+        if (touched != null && System.currentTimeMillis() - lastCheckpoint >= checkpointPeriod) {
+            writeCheckpoint(checkpoint, level);
+            lastCheckpoint = System.currentTimeMillis();
         }
     }
 
+    /**
+     * Checks the given transformation.
+     *
+     * @param transformation
+     * @return
+     */
+    private NodeChecker.Result check(Transformation transformation) {
+        if (instrumentation == null) {
+            return checker.check(transformation);
+        }
+        long time = System.nanoTime();
+        NodeChecker.Result result = checker.check(transformation);
+        instrumentation.operation(Operation.CHECK, System.nanoTime() - time);
+        return result;
+    }
+
     /**
      * Checks and tags the given transformation.
      *
@@ -193,17 +475,24 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // Check or evaluate
         if (configuration.getTriggerEvaluate().appliesTo(transformation)) {
+            long time = instrumentation != null ? System.nanoTime() : 0;
             InformationLossWithBound<?> loss = checker.getMetric().getInformationLoss(transformation, (HashGroupify)null);
             transformation.setInformationLoss(loss.getInformationLoss());
             transformation.setLowerBound(loss.getLowerBound());
             if (loss.getLowerBound() == null) {
                 transformation.setLowerBound(checker.getMetric().getLowerBound(transformation));
             }
+            if (instrumentation != null) {
+                instrumentation.operation(Operation.EVALUATE, System.nanoTime() - time);
+            }
         } else if (configuration.getTriggerCheck().appliesTo(transformation)) {
-            transformation.setChecked(checker.check(transformation));
+            transformation.setChecked(check(transformation));
             progress((double)++checked / (double)solutionSpace.getSize());
         }
 
+        // Remember
+        touch(transformation);
+
         // Store optimum
         trackOptimum(transformation);
 
@@ -211,7 +500,13 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         configuration.getTriggerTag().apply(transformation);
 
         // Potentially prune some parts of the search space
-        prune(transformation);
+        if (instrumentation != null) {
+            long time = System.nanoTime();
+            prune(transformation);
+            instrumentation.operation(Operation.PRUNE, System.nanoTime() - time);
+        } else {
+            prune(transformation);
+        }
     }
 
     /**
@@ -222,7 +517,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @param queue
      * @return
      */
-    private int checkPath(List<Integer> path, DependentAction triggerSkip, PriorityQueue<Integer> queue) {
+    private int checkPath(IntArrayList path, DependentAction triggerSkip, FLASHPriorityQueue queue) {
 
         // Obtain anonymity property
         PredictiveProperty anonymityProperty = config.getBinaryPhaseConfiguration().getAnonymityProperty() == PhaseAnonymityProperty.ANONYMITY ?
@@ -234,11 +529,11 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         int lastAnonymousIdentifier = -1;
 
         // While not done
-        while (low <= high) {
+        while (low <= high && !isBudgetExhausted()) {
 
             // Init
             final int mid = (low + high) / 2;
-            final int identifier = path.get(mid);
+            final int identifier = path.getQuick(mid);
             Transformation transformation = solutionSpace.getTransformation(identifier);
 
             // Skip
@@ -276,10 +571,10 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      *
      * @param current The node to start the path with. Will be included
      * @param triggerSkip All nodes to which this trigger applies will be skipped
-     * @return The path as a list
+     * @param path Buffer to which the path will be written
      */
-    private List<Integer> findPath(Integer current, DependentAction triggerSkip) {
-        List<Integer> path = new ArrayList<Integer>();
+    private void findPath(int current, DependentAction triggerSkip, IntArrayList path) {
+        path.clear();
         path.add(current);
         boolean found = true;
         while (found) {
@@ -293,7 +588,6 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 }
             }
         }
-        return path;
     }
 
     /**
@@ -307,7 +601,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     private int[] getSortedUnprocessedNodes(int level, DependentAction triggerSkip) {
 
         // Create
-        List<Integer> result = new ArrayList<Integer>();
+        IntArrayList result = new IntArrayList();
         for (Iterator<Long> iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
             int id = iter.next().intValue();
             if (!skip(triggerSkip, solutionSpace.getTransformation(id))) {
@@ -317,9 +611,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // Copy & sort
         int[] resultArray = new int[result.size()];
-        for (int i=0; i<result.size(); i++) {
-            resultArray[i] = result.get(i);
-        }
+        System.arraycopy(result.elements(), 0, resultArray, 0, resultArray.length);
         sort(resultArray);
         return resultArray;
     }
@@ -338,6 +630,11 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         Transformation transformation = solutionSpace.getTransformation(start);
         if (!skip(triggerSkip, transformation)) {
 
+            // Stop, if the budget is exhausted. The node is not marked.
+            if (isBudgetExhausted()) {
+                return;
+            }
+
             // Check and tag
             checkAndTag(transformation, config.getLinearPhaseConfiguration());
 
@@ -351,6 +648,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // Mark as successors pruned
         transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+        touch(transformation);
     }
 
     /**
@@ -381,7 +679,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // If we haven't yet found an optimum, we simply add the node to the list of pruning candidates
         if (optimalTransformation == null) {
-            potentiallyInsufficientUtility.add((int)node.getIdentifier());
+            potentiallyInsufficientUtility.add(new PruningCandidate(node));
             return;
         }
 
@@ -395,35 +693,32 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             if (optimalInfoLoss.compareTo(node.getLowerBound()) <= 0) {
                 node.setProperty(solutionSpace.getPropertyInsufficientUtility());
                 node.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                touch(node);
                 // Else, we store it as a future pruning candidate
             } else {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(new PruningCandidate(node));
             }
 
-            // If the current node is our new optimum, we check all candidates
+            // If the current node is our new optimum, we check all candidates with a sufficiently high lower bound
         } else {
 
             // For each candidate
-            Iterator<Integer> iterator = potentiallyInsufficientUtility.iterator();
-            while (iterator.hasNext()) {
-                Integer current = iterator.next();
-
-                // Remove the candidate, if it was already pruned in the meantime
-                Transformation currentTransformation = solutionSpace.getTransformation(current);
-                if (currentTransformation.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
-                    iterator.remove();
+            while (!potentiallyInsufficientUtility.isEmpty() &&
+                   optimalInfoLoss.compareTo(potentiallyInsufficientUtility.peek().lowerBound) <= 0) {
 
-                    // Else, check if we can prune it
-                } else if (optimalInfoLoss.compareTo(currentTransformation.getLowerBound()) <= 0) {
+                // Prune the candidate, unless it was already pruned in the meantime
+                PruningCandidate candidate = potentiallyInsufficientUtility.poll();
+                Transformation currentTransformation = solutionSpace.getTransformation(candidate.identifier);
+                if (!currentTransformation.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
                     currentTransformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     currentTransformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
-                    iterator.remove();
+                    touch(currentTransformation);
                 }
             }
 
             // The current optimum is a future pruning candidate
             if (!node.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(new PruningCandidate(node));
             }
         }
     }
@@ -436,9 +731,29 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @return
      */
     private boolean skip(DependentAction trigger, Transformation transformation) {
+        if (instrumentation == null) {
+            return isSkipped(trigger, transformation);
+        }
+        long time = System.nanoTime();
+        boolean result = isSkipped(trigger, transformation);
+        instrumentation.operation(Operation.SKIP, System.nanoTime() - time);
+        return result;
+    }
+
+    /**
+     * Implements {@link #skip(DependentAction, Transformation)}.
+     *
+     * @param trigger
+     * @param transformation
+     * @return
+     */
+    private boolean isSkipped(DependentAction trigger, Transformation transformation) {
 
         // If the trigger applies, skip
         if (trigger.appliesTo(transformation)) {
+            if (instrumentation != null) {
+                skipped(transformation, SkipReason.TRIGGER);
+            }
             return true;
         }
         
@@ -456,6 +771,9 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
             // We skip, if we already know that this node has insufficient utility
             if (transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility())) {
+                if (instrumentation != null) {
+                    skipped(transformation, SkipReason.INSUFFICIENT_UTILITY);
+                }
                 return true;
             }
 
@@ -465,6 +783,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 lowerBound = checker.getMetric().getLowerBound(transformation);
                 if (lowerBound != null) {
                     transformation.setLowerBound(lowerBound);
+                    touch(transformation);
                 }
             }
 
@@ -473,6 +792,9 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 if (getGlobalOptimum().getInformationLoss().compareTo(lowerBound) <= 0) {
                     transformation.setProperty(solutionSpace.getPropertyInsufficientUtility());
                     transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+                    if (instrumentation != null) {
+                        skipped(transformation, SkipReason.LOWER_BOUND);
+                    }
                     return true;
                 }
             }
@@ -482,12 +804,310 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return false;
     }
 
+    /**
+     * Notifies the listener about a skipped transformation, unless it has already been reported.
+     * Transformations are reported with the reason for which they have been skipped first.
+     *
+     * @param transformation
+     * @param reason
+     */
+    private void skipped(Transformation transformation, SkipReason reason) {
+        int identifier = (int) transformation.getIdentifier();
+        if (!skippedTransformations.get(identifier)) {
+            skippedTransformations.set(identifier);
+            instrumentation.skipped(reason);
+        }
+    }
+
+    /**
+     * Computes lower bounds of all transformations on the given levels, which do not have one yet.
+     *
+     * @param from
+     * @param to
+     */
+    private void computeLowerBounds(int from, int to) {
+        for (int level = from; level <= to; level++) {
+            for (Iterator<Long> iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
+                Transformation transformation = solutionSpace.getTransformation(iter.next());
+                if (transformation.getLowerBound() == null) {
+                    InformationLoss<?> bound = checker.getMetric().getLowerBound(transformation);
+                    if (bound != null) {
+                        transformation.setLowerBound(bound);
+                        touch(transformation);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a bitmask of the configuration options which must not differ between
+     * writing and reading a checkpoint.
+     *
+     * @return
+     */
+    private int getCheckpointConfiguration() {
+        boolean[] options = { config.isBinaryPhaseRequired(),
+                              config.isLinearPhaseRequired(),
+                              config.isPruneInsufficientUtility(),
+                              config.isAnonymityPropertyPredicable(),
+                              checker.getConfiguration().isPracticalMonotonicity(),
+                              useLowerBound };
+        int result = 0;
+        for (int i = 0; i < options.length; i++) {
+            result |= options[i] ? 1 << i : 0;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the properties which are stored in checkpoints. The position of a
+     * property defines its bit in the stored bitmasks.
+     *
+     * @return
+     */
+    private PredictiveProperty[] getCheckpointProperties() {
+        return new PredictiveProperty[] { solutionSpace.getPropertyAnonymous(),
+                                          solutionSpace.getPropertyNotAnonymous(),
+                                          solutionSpace.getPropertyKAnonymous(),
+                                          solutionSpace.getPropertyNotKAnonymous(),
+                                          solutionSpace.getPropertyChecked(),
+                                          solutionSpace.getPropertyForceSnapshot(),
+                                          solutionSpace.getPropertyInsufficientUtility(),
+                                          solutionSpace.getPropertySuccessorsPruned(),
+                                          solutionSpace.getPropertyVisited() };
+    }
+
+    /**
+     * Returns a lower bound on the information loss of all transformations which have not been
+     * processed, null if it is unknown. Lower bounds are monotonic, which is also assumed when
+     * pruning successors, so only the unprocessed transformations without unprocessed predecessors
+     * need to be considered. Missing lower bounds are computed for these transformations only.
+     *
+     * @param start The first level which has not been processed completely
+     * @param triggerSkip The trigger which applies to all processed transformations
+     * @return
+     */
+    private InformationLoss<?> getLowerBoundOfUnprocessedNodes(int start, DependentAction triggerSkip) {
+
+        InformationLoss<?> result = getGlobalOptimum() != null ? getGlobalOptimum().getInformationLoss() : null;
+        BitSet dominated = new BitSet();
+        for (int level = start; level <= solutionSpace.getTop().getLevel(); level++) {
+            for (Iterator<Long> iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
+                Transformation transformation = solutionSpace.getTransformation(iter.next());
+                if (triggerSkip.appliesTo(transformation) ||
+                    transformation.hasProperty(solutionSpace.getPropertyChecked()) ||
+                    transformation.hasProperty(solutionSpace.getPropertyInsufficientUtility())) {
+                    continue;
+                }
+
+                // Bounds of successors are at least as high
+                LongArrayList successors = solutionSpace.getSuccessors(transformation.getIdentifier());
+                for (int i = 0; i < successors.size(); i++) {
+                    dominated.set((int) successors.getQuick(i));
+                }
+                if (dominated.get((int) transformation.getIdentifier())) {
+                    continue;
+                }
+
+                // Frontier
+                InformationLoss<?> bound = transformation.getLowerBound();
+                if (bound == null) {
+                    bound = checker.getMetric().getLowerBound(transformation);
+                    if (bound == null) {
+                        return null;
+                    }
+                    transformation.setLowerBound(bound);
+                    touch(transformation);
+                }
+                if (result == null || bound.compareTo(result) < 0) {
+                    result = bound;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the time or check budget is exhausted.
+     *
+     * @return
+     */
+    private boolean isBudgetExhausted() {
+        if (!exhausted) {
+            exhausted = (deadline > 0 && System.currentTimeMillis() >= deadline) ||
+                        (checkLimit > 0 && checked >= checkLimit);
+        }
+        return exhausted;
+    }
+
+    /**
+     * Restores the state of the traversal from a checkpoint.
+     *
+     * @param file
+     * @return The level at which the traversal is to be continued
+     */
+    private int readCheckpoint(File file) {
+
+        PredictiveProperty[] properties = getCheckpointProperties();
+        ObjectInputStream in = null;
+        try {
+            in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+            // Header
+            if (in.readInt() != CHECKPOINT_VERSION) {
+                throw new IllegalArgumentException("Unsupported checkpoint version");
+            }
+            if (in.readLong() != solutionSpace.getSize() ||
+                !Arrays.equals((int[]) in.readObject(), solutionSpace.getTop().getGeneralization())) {
+                throw new IllegalArgumentException("Checkpoint does not match the solution space");
+            }
+            if (in.readInt() != getCheckpointConfiguration() ||
+                !in.readUTF().equals(checker.getMetric().getClass().getName())) {
+                throw new IllegalArgumentException("Checkpoint does not match the configuration");
+            }
+            int level = in.readInt();
+            this.checked = in.readInt();
+
+            // Transformations
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                Transformation transformation = solutionSpace.getTransformation(in.readInt());
+                int mask = in.readInt();
+                for (int j = 0; j < properties.length; j++) {
+                    if ((mask & (1 << j)) != 0) {
+                        transformation.setProperty(properties[j]);
+                    }
+                }
+                InformationLoss<?> loss = (InformationLoss<?>) in.readObject();
+                InformationLoss<?> bound = (InformationLoss<?>) in.readObject();
+                if (loss != null) {
+                    transformation.setInformationLoss(loss);
+                }
+                if (bound != null) {
+                    transformation.setLowerBound(bound);
+                }
+                touch(transformation);
+            }
+
+            // Optimum
+            int optimum = in.readInt();
+            if (optimum != -1) {
+                trackOptimum(solutionSpace.getTransformation(optimum));
+            }
+
+            // Pruning candidates
+            size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                Transformation transformation = solutionSpace.getTransformation(in.readInt());
+                if (potentiallyInsufficientUtility != null && transformation.getLowerBound() != null) {
+                    potentiallyInsufficientUtility.add(new PruningCandidate(transformation));
+                }
+            }
+            return level;
+
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Error reading checkpoint", e);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Remembers that the state of a transformation must be included in checkpoints.
+     *
+     * @param transformation
+     */
+    private void touch(Transformation transformation) {
+        if (touched != null) {
+            touched.set((int) transformation.getIdentifier());
+        }
+    }
+
+    /**
+     * Writes the state of the traversal to a checkpoint. The file is replaced atomically.
+     *
+     * @param file
+     * @param level
+     */
+    private void writeCheckpoint(File file, int level) {
+
+        PredictiveProperty[] properties = getCheckpointProperties();
+        File temp = new File(file.getPath() + ".tmp");
+        ObjectOutputStream out = null;
+        try {
+            out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+
+            // Header
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeLong(solutionSpace.getSize());
+            out.writeObject(solutionSpace.getTop().getGeneralization());
+            out.writeInt(getCheckpointConfiguration());
+            out.writeUTF(checker.getMetric().getClass().getName());
+            out.writeInt(level);
+            out.writeInt(checked);
+
+            // Transformations
+            out.writeInt(touched.cardinality());
+            for (int id = touched.nextSetBit(0); id >= 0; id = touched.nextSetBit(id + 1)) {
+                Transformation transformation = solutionSpace.getTransformation(id);
+                int mask = 0;
+                for (int j = 0; j < properties.length; j++) {
+                    if (transformation.hasProperty(properties[j])) {
+                        mask |= 1 << j;
+                    }
+                }
+                out.writeInt(id);
+                out.writeInt(mask);
+                out.writeObject(transformation.getInformationLoss());
+                out.writeObject(transformation.getLowerBound());
+            }
+
+            // Optimum
+            Transformation optimum = getGlobalOptimum();
+            out.writeInt(optimum == null ? -1 : (int) optimum.getIdentifier());
+
+            // Pruning candidates
+            if (potentiallyInsufficientUtility == null) {
+                out.writeInt(0);
+            } else {
+                out.writeInt(potentiallyInsufficientUtility.size());
+                for (PruningCandidate candidate : potentiallyInsufficientUtility) {
+                    out.writeInt(candidate.identifier);
+                }
+            }
+            out.close();
+            out = null;
+
+            // Replace
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing checkpoint", e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
     /**
      * Sorts a given array of transformation identifiers.
      * 
      * @param array
      */
     private void sort(final int[] array) {
+        long time = instrumentation != null ? System.nanoTime() : 0;
         GenericSorting.mergeSort(0, array.length, new IntComparator(){
             @Override
             public int compare(int arg0, int arg1) {
@@ -502,24 +1122,30 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             }
             
         });
+        if (instrumentation != null) {
+            instrumentation.operation(Operation.SORT, System.nanoTime() - time);
+        }
     }
 
     /**
-     * Sorts pointers to successor nodes according to the strategy.
+     * Sorts pointers to successor nodes according to the strategy. Results are cached
+     * in a direct-mapped cache of bounded size.
      *
      * @param transformation
      */
     private int[] getSortedSuccessors(final int transformation) {
         
-        if (sortedSuccessors[transformation] == null) {
+        int slot = transformation & (sortedSuccessorsKeys.length - 1);
+        if (sortedSuccessorsKeys[slot] != transformation) {
             LongArrayList list = solutionSpace.getSuccessors(transformation);
             int[] result = new int[list.size()];
             for (int i=0; i<list.size(); i++) {
                 result[i] = (int)list.getQuick(i);
             }
             sort(result);
-            sortedSuccessors[transformation] = result;
+            sortedSuccessorsKeys[slot] = transformation;
+            sortedSuccessors[slot] = result;
         }
-        return sortedSuccessors[transformation];
+        return sortedSuccessors[slot];
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A listener, which is notified about operations performed by the FLASH algorithm.
+ *
+ * @author Fabian Prasser
+ */
+public interface FLASHListener {
+
+    /**
+     * Instrumented operations
+     *
+     * @author Fabian Prasser
+     */
+    public static enum Operation {
+        /** Checking a transformation */
+        CHECK,
+        /** Evaluating the metric for a transformation without checking it */
+        EVALUATE,
+        /** Sorting transformations according to the strategy */
+        SORT,
+        /** Deciding whether to skip a transformation, including computing lower bounds */
+        SKIP,
+        /** Pruning transformations with insufficient utility */
+        PRUNE
+    }
+
+    /**
+     * Reasons for skipping a transformation
+     *
+     * @author Fabian Prasser
+     */
+    public static enum SkipReason {
+        /** The skip trigger applies */
+        TRIGGER,
+        /** The transformation is known to have insufficient utility */
+        INSUFFICIENT_UTILITY,
+        /** The lower bound of the transformation is not better than the optimum */
+        LOWER_BOUND
+    }
+
+    /**
+     * Called when an operation has been performed
+     *
+     * @param operation
+     * @param nanos The time spent in nanoseconds
+     */
+    public void operation(Operation operation, long nanos);
+
+    /**
+     * Called when a transformation has been skipped for the first time. Each transformation
+     * is reported at most once per traversal.
+     *
+     * @param reason
+     */
+    public void skipped(SkipReason reason);
+
+    /**
+     * Called when a traversal has finished. Traversals are incomplete if a time or check limit
+     * is exceeded. The difference between the information loss of the optimum and the lower bound
+     * then bounds the distance to the real optimum.
+     *
+     * @param complete Whether the whole solution space has been covered
+     * @param lowerBound A lower bound on the information loss of all transformations which have
+     *                   not been processed, the information loss of the optimum if the traversal
+     *                   was complete, null if it is unknown
+     */
+    public void traversed(boolean complete, InformationLoss<?> lowerBound);
+}
@@ -0,0 +1,126 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * A binary heap of transformation identifiers, which are ordered according to a FLASH strategy.
+ * In contrast to a <code>PriorityQueue&lt;Integer&gt;</code>, identifiers are stored in a primitive
+ * array, so that adding and removing them does not allocate objects. Comparisons are delegated
+ * to the strategy with primitive arguments.
+ *
+ * @author Fabian Prasser
+ */
+public class FLASHPriorityQueue {
+
+    /** The strategy */
+    private final FLASHStrategy strategy;
+
+    /** The heap */
+    private int[]               heap;
+
+    /** The number of elements */
+    private int                 size = 0;
+
+    /**
+     * Creates a new instance
+     *
+     * @param capacity
+     * @param strategy
+     */
+    public FLASHPriorityQueue(int capacity, FLASHStrategy strategy) {
+        this.heap = new int[Math.max(capacity, 2)];
+        this.strategy = strategy;
+    }
+
+    /**
+     * Adds an identifier
+     *
+     * @param identifier
+     */
+    public void add(int identifier) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length << 1);
+        }
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (strategy.compare(identifier, heap[parent]) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = identifier;
+    }
+
+    /**
+     * Removes all elements
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns whether the queue is empty
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes and returns the head of the queue
+     *
+     * @return
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        int result = heap[0];
+        int last = heap[--size];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && strategy.compare(heap[right], heap[child]) < 0) {
+                child = right;
+            }
+            if (strategy.compare(last, heap[child]) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = last;
+        return result;
+    }
+
+    /**
+     * Returns the number of elements
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * A thread-safe listener, which collects counters, times and histograms of times for
+ * all operations of the FLASH algorithm. It can be registered as an MBean.
+ *
+ * @author Fabian Prasser
+ */
+public class FLASHStatistics implements FLASHListener, FLASHStatisticsMBean {
+
+    /** Number of buckets of the histograms */
+    private static final int     BUCKETS = 64;
+
+    /** Counts per operation */
+    private final AtomicLongArray counts     = new AtomicLongArray(Operation.values().length);
+
+    /** Times per operation */
+    private final AtomicLongArray times      = new AtomicLongArray(Operation.values().length);
+
+    /** Histograms per operation */
+    private final AtomicLongArray histograms = new AtomicLongArray(Operation.values().length * BUCKETS);
+
+    /** Counts per reason for skipping */
+    private final AtomicLongArray skipped    = new AtomicLongArray(SkipReason.values().length);
+
+    /** Whether the last traversal was complete */
+    private volatile boolean            complete   = true;
+
+    /** Lower bound reported by the last traversal */
+    private volatile InformationLoss<?> lowerBound = null;
+
+    @Override
+    public long getCount(String operation) {
+        return getCount(Operation.valueOf(operation));
+    }
+
+    /**
+     * Returns the number of times the given operation was performed
+     *
+     * @param operation
+     * @return
+     */
+    public long getCount(Operation operation) {
+        return counts.get(operation.ordinal());
+    }
+
+    @Override
+    public long[] getHistogram(String operation) {
+        return getHistogram(Operation.valueOf(operation));
+    }
+
+    /**
+     * Returns a histogram of the time spent in the given operation. Bucket i counts
+     * operations which took less than 2^i nanoseconds and at least 2^(i-1) nanoseconds.
+     *
+     * @param operation
+     * @return
+     */
+    public long[] getHistogram(Operation operation) {
+        long[] result = new long[BUCKETS];
+        int offset = operation.ordinal() * BUCKETS;
+        for (int i = 0; i < BUCKETS; i++) {
+            result[i] = histograms.get(offset + i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the lower bound on the information loss of all transformations which have not
+     * been processed by the last traversal, null if it is unknown
+     *
+     * @return
+     */
+    public InformationLoss<?> getLowerBound() {
+        return lowerBound;
+    }
+
+    @Override
+    public long getNumSkipped(String reason) {
+        return getNumSkipped(SkipReason.valueOf(reason));
+    }
+
+    /**
+     * Returns the number of transformations skipped for the given reason
+     *
+     * @param reason
+     * @return
+     */
+    public long getNumSkipped(SkipReason reason) {
+        return skipped.get(reason.ordinal());
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder builder = new StringBuilder();
+        for (Operation operation : Operation.values()) {
+            builder.append(operation).append(": ").append(getCount(operation)).append(" operations in ");
+            builder.append(getTime(operation) / 1000000L).append(" [ms]\n");
+        }
+        for (SkipReason reason : SkipReason.values()) {
+            builder.append("Skipped (").append(reason).append("): ").append(getNumSkipped(reason)).append("\n");
+        }
+        builder.append("Complete: ").append(complete).append(", lower bound: ").append(lowerBound).append("\n");
+        return builder.toString();
+    }
+
+    @Override
+    public long getTime(String operation) {
+        return getTime(Operation.valueOf(operation));
+    }
+
+    /**
+     * Returns the time spent in the given operation in nanoseconds
+     *
+     * @param operation
+     * @return
+     */
+    public long getTime(Operation operation) {
+        return times.get(operation.ordinal());
+    }
+
+    @Override
+    public void operation(Operation operation, long nanos) {
+        int index = operation.ordinal();
+        counts.incrementAndGet(index);
+        times.addAndGet(index, nanos);
+        histograms.incrementAndGet(index * BUCKETS + Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0L, nanos))));
+    }
+
+    @Override
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Registers this instance with the platform MBean server
+     *
+     * @param name The object name, e.g. "org.deidentifier.arx:type=FLASHStatistics"
+     * @throws JMException
+     */
+    public void register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName object = new ObjectName(name);
+        if (server.isRegistered(object)) {
+            server.unregisterMBean(object);
+        }
+        server.registerMBean(this, object);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+            times.set(i, 0);
+        }
+        for (int i = 0; i < histograms.length(); i++) {
+            histograms.set(i, 0);
+        }
+        for (int i = 0; i < skipped.length(); i++) {
+            skipped.set(i, 0);
+        }
+        complete = true;
+        lowerBound = null;
+    }
+
+    @Override
+    public void skipped(SkipReason reason) {
+        skipped.incrementAndGet(reason.ordinal());
+    }
+
+    @Override
+    public void traversed(boolean complete, InformationLoss<?> lowerBound) {
+        this.complete = complete;
+        this.lowerBound = lowerBound;
+    }
+}
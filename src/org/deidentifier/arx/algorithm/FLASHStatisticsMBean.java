@@ -0,0 +1,78 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+/**
+ * Management interface of {@link FLASHStatistics}.
+ *
+ * @author Fabian Prasser
+ */
+public interface FLASHStatisticsMBean {
+
+    /**
+     * Returns the number of times the given operation was performed
+     *
+     * @param operation
+     * @return
+     */
+    public long getCount(String operation);
+
+    /**
+     * Returns a histogram of the time spent in the given operation. Bucket i counts
+     * operations which took less than 2^i nanoseconds and at least 2^(i-1) nanoseconds.
+     *
+     * @param operation
+     * @return
+     */
+    public long[] getHistogram(String operation);
+
+    /**
+     * Returns the number of transformations skipped for the given reason
+     *
+     * @param reason
+     * @return
+     */
+    public long getNumSkipped(String reason);
+
+    /**
+     * Returns the time spent in the given operation in nanoseconds
+     *
+     * @param operation
+     * @return
+     */
+    public long getTime(String operation);
+
+    /**
+     * Returns a summary of all counters
+     *
+     * @return
+     */
+    public String getSummary();
+
+    /**
+     * Returns whether the last traversal covered the whole solution space
+     *
+     * @return
+     */
+    public boolean isComplete();
+
+    /**
+     * Resets all counters
+     */
+    public void reset();
+}
@@ -28,6 +28,8 @@ import org.deidentifier.arx.DataHandle;
 import org.deidentifier.arx.benchmark.BenchmarkSetup.BenchmarkDataset;
 import org.deidentifier.arx.benchmark.BenchmarkSetup.BenchmarkPrivacyModel;
 import org.deidentifier.arx.benchmark.BenchmarkSetup.BenchmarkUtilityMeasure;
+import org.deidentifier.arx.risk.ModelPitman;
+import org.deidentifier.arx.risk.ModelPitmanCache;
 
 import de.linearbits.subframe.Benchmark;
 import de.linearbits.subframe.analyzer.ValueBuffer;
@@ -51,6 +53,9 @@ public class BenchmarkExperiment3 {
     /** Transformation */
     public static final int        TRANSFORMATION = BENCHMARK.addMeasure("Transformation");
 
+    /** Results of the Pitman model, which are shared by all runs, if enabled with -cache. Not under version control. */
+    private static final File      CACHE          = new File("cache/experiment3.cache");
+
     /**
      * Returns all datasets
      * @return
@@ -105,11 +110,28 @@ public class BenchmarkExperiment3 {
      */
     public static void main(String[] args) throws IOException {
 
+        // Parse commandline
+        boolean useCache = false;
+        if (args != null) {
+            for (String arg : args) {
+                if (arg.equals("-cache")) {
+                    useCache = true;
+                }
+            }
+        }
+
         // Init
         BENCHMARK.addAnalyzer(UTILITY, new ValueBuffer());
         BENCHMARK.addAnalyzer(SUPPRESSED, new ValueBuffer());
         BENCHMARK.addAnalyzer(TRANSFORMATION, new ValueBuffer());
         
+        // Reuse results of the Pitman model from previous executions
+        ModelPitmanCache cache = useCache ? new ModelPitmanCache(1000000) : null;
+        if (cache != null && CACHE.exists()) {
+            cache.load(CACHE);
+        }
+        ModelPitman.hookSetCache(cache);
+        
         // Repeat for each data set
         for (BenchmarkDataset data : getDatasets()) {
             for (BenchmarkPrivacyModel privacy : getPrivacyModels()) {
@@ -125,6 +147,10 @@ public class BenchmarkExperiment3 {
                         
                         // Write after each experiment
                         BENCHMARK.getResults().write(new File("results/experiment3.csv"));
+                        if (cache != null && cache.isDirty()) {
+                            CACHE.getParentFile().mkdirs();
+                            cache.save(CACHE);
+                        }
                     }
                 }
             }
@@ -0,0 +1,247 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.criteria;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of class sizes, which is updated incrementally while the smallest classes
+ * are being suppressed. Suppressing or un-suppressing classes only moves a cursor over
+ * the histogram, which is sorted by class size in ascending order.
+ *
+ * @author Fabian Prasser
+ */
+public class IncrementalHistogram {
+
+    /** Class sizes in ascending order */
+    private final int[] keys;
+    /** Number of classes of each size */
+    private final int[] values;
+    /** Total number of classes */
+    private final int   numClasses;
+    /** Total number of tuples */
+    private final int   numTuples;
+
+    /** Index of the smallest class size with classes that are not suppressed */
+    private int         index             = 0;
+    /** Number of suppressed classes of the size at the index */
+    private int         partial           = 0;
+    /** Number of suppressed classes */
+    private int         suppressedClasses = 0;
+    /** Number of suppressed tuples */
+    private int         suppressedTuples  = 0;
+
+    /**
+     * Creates a new instance from pairs of class sizes and numbers of classes
+     *
+     * @param histogram
+     */
+    public IncrementalHistogram(int[] histogram) {
+
+        // Sort pairs by class size
+        long[] pairs = new long[histogram.length / 2];
+        for (int i = 0; i < histogram.length; i += 2) {
+            pairs[i / 2] = ((long) histogram[i] << 32) | (histogram[i + 1] & 0xffffffffL);
+        }
+        Arrays.sort(pairs);
+
+        // Store
+        this.keys = new int[pairs.length];
+        this.values = new int[pairs.length];
+        int classes = 0;
+        int tuples = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            keys[i] = (int) (pairs[i] >>> 32);
+            values[i] = (int) pairs[i];
+            classes += values[i];
+            tuples += keys[i] * values[i];
+        }
+        this.numClasses = classes;
+        this.numTuples = tuples;
+    }
+
+    /**
+     * Creates a copy of the given histogram, which shares its immutable data
+     *
+     * @param other
+     */
+    public IncrementalHistogram(IncrementalHistogram other) {
+        this.keys = other.keys;
+        this.values = other.values;
+        this.numClasses = other.numClasses;
+        this.numTuples = other.numTuples;
+        this.index = other.index;
+        this.partial = other.partial;
+        this.suppressedClasses = other.suppressedClasses;
+        this.suppressedTuples = other.suppressedTuples;
+    }
+
+    /**
+     * Returns the histogram of classes that are not suppressed, as pairs of class sizes and
+     * numbers of classes in ascending order of class size
+     *
+     * @return
+     */
+    public int[] getHistogram() {
+        int length = keys.length - index;
+        int[] result = new int[length * 2];
+        int size = 0;
+        for (int i = index; i < keys.length; i++) {
+            int value = (i == index) ? values[i] - partial : values[i];
+            if (value != 0) {
+                result[size++] = keys[i];
+                result[size++] = value;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Returns the number of classes that are not suppressed
+     *
+     * @return
+     */
+    public int getNumClasses() {
+        return numClasses - suppressedClasses;
+    }
+
+    /**
+     * Returns the number of classes of the given size that are not suppressed
+     *
+     * @param size
+     * @return
+     */
+    public int getNumClassesOfSize(int size) {
+        int i = Arrays.binarySearch(keys, size);
+        if (i < index) {
+            return 0;
+        } else if (i == index) {
+            return values[i] - partial;
+        } else {
+            return values[i];
+        }
+    }
+
+    /**
+     * Returns the number of suppressed classes
+     *
+     * @return
+     */
+    public int getNumSuppressedClasses() {
+        return suppressedClasses;
+    }
+
+    /**
+     * Returns the number of suppressed tuples
+     *
+     * @return
+     */
+    public int getNumSuppressedTuples() {
+        return suppressedTuples;
+    }
+
+    /**
+     * Returns the number of tuples that are not suppressed
+     *
+     * @return
+     */
+    public int getNumTuples() {
+        return numTuples - suppressedTuples;
+    }
+
+    /**
+     * Returns the total number of classes, including suppressed classes
+     *
+     * @return
+     */
+    public int getTotalNumClasses() {
+        return numClasses;
+    }
+
+    /**
+     * Returns the total number of tuples, including suppressed tuples
+     *
+     * @return
+     */
+    public int getTotalNumTuples() {
+        return numTuples;
+    }
+
+    /**
+     * Suppresses the given number of smallest classes. Only the difference to the current
+     * state is applied.
+     *
+     * @param classes
+     */
+    public void suppressClasses(int classes) {
+
+        // Check bounds
+        classes = Math.max(0, Math.min(numClasses, classes));
+
+        // Suppress more
+        while (suppressedClasses < classes) {
+            int delta = Math.min(values[index] - partial, classes - suppressedClasses);
+            partial += delta;
+            suppressedClasses += delta;
+            suppressedTuples += delta * keys[index];
+            if (partial == values[index]) {
+                index++;
+                partial = 0;
+            }
+        }
+
+        // Suppress less
+        while (suppressedClasses > classes) {
+            if (partial == 0) {
+                index--;
+                partial = values[index];
+            }
+            int delta = Math.min(partial, suppressedClasses - classes);
+            partial -= delta;
+            suppressedClasses -= delta;
+            suppressedTuples -= delta * keys[index];
+        }
+    }
+
+    /**
+     * Suppresses the smallest classes until at least the given number of tuples is suppressed.
+     * Only the difference to the current state is applied.
+     *
+     * @param tuples
+     */
+    public void suppressTuples(int tuples) {
+
+        // Suppress more
+        while (suppressedTuples < tuples && index < keys.length) {
+            int remaining = tuples - suppressedTuples;
+            int delta = Math.min(values[index] - partial, (remaining + keys[index] - 1) / keys[index]);
+            suppressClasses(suppressedClasses + delta);
+        }
+
+        // Suppress less
+        while (suppressedTuples > tuples) {
+            int current = partial == 0 ? index - 1 : index;
+            int available = partial == 0 ? values[current] : partial;
+            int delta = Math.min(available, (suppressedTuples - tuples) / keys[current]);
+            if (delta == 0) {
+                break;
+            }
+            suppressClasses(suppressedClasses - delta);
+        }
+    }
+}
@@ -17,6 +17,16 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyDistribution;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyDistribution.PrivacyCondition;
@@ -39,10 +49,104 @@ public abstract class RiskBasedCriterion extends SampleBasedCriterion{
         useBinarySearch = use;
     }
 
+    /** Hook for benchmarking purposes*/
+    private static boolean useIncrementalHistogram = false;
+    
+    /** 
+     * Hook for benchmarking purposes. When enabled, criteria that support it, currently sample
+     * uniqueness, are evaluated on an incrementally maintained histogram of class sizes during suppression.
+     * Population uniqueness is not supported, as its models require a RiskModelHistogram, which can only
+     * be obtained from a distribution. It is evaluated on the distribution, as without this hook.
+     * @param use
+     */
+    public static void hookUseIncrementalHistogram(boolean use) {
+        useIncrementalHistogram = use;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static boolean useBracketingSearch = false;
+    
+    /** 
+     * Hook for benchmarking purposes. When enabled, criteria that support incremental histograms
+     * search for the minimal number of suppressed classes with exponential galloping followed by
+     * interpolation search, starting at the level of suppression required by the previous
+     * transformation. Requires {@link #hookUseIncrementalHistogram(boolean)} and therefore has
+     * no effect on population uniqueness.
+     * @param use
+     */
+    public static void hookUseBracketingSearch(boolean use) {
+        useBracketingSearch = use;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static ExecutorService pool = null;
+
+    /** Hook for benchmarking purposes*/
+    private static int             threads = 0;
+    
+    /** 
+     * Hook for benchmarking purposes. When the given number of threads is larger than one, criteria
+     * that support incremental histograms evaluate batches of suppression levels concurrently and
+     * narrow the search interval by a factor of the batch size in each round. Requires
+     * {@link #hookUseIncrementalHistogram(boolean)} and therefore has no effect on population
+     * uniqueness. Pass 0 to disable.
+     * @param threads
+     */
+    public static synchronized void hookUseBatchSearch(int threads) {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        RiskBasedCriterion.threads = threads > 1 ? threads : 0;
+        RiskBasedCriterion.pool = threads > 1 ? Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            }
+        }) : null;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static boolean          useRiskBounds      = false;
+
+    /** Number of evaluations decided by bounds to be fulfilled */
+    private static final AtomicLong boundsFulfilled    = new AtomicLong();
+
+    /** Number of evaluations decided by bounds to not be fulfilled */
+    private static final AtomicLong boundsNotFulfilled = new AtomicLong();
+
+    /** Number of evaluations that required the risk model */
+    private static final AtomicLong modelEvaluations   = new AtomicLong();
+
+    /** 
+     * Hook for benchmarking purposes. When enabled, uniqueness criteria are first evaluated with
+     * cheap bounds derived from the number of sample uniques. The risk model is only evaluated if
+     * the bounds are not conclusive.
+     * @param use
+     */
+    public static void hookUseRiskBounds(boolean use) {
+        useRiskBounds = use;
+    }
+
+    /**
+     * Hook for benchmarking purposes. Returns the number of evaluations that have been decided
+     * by bounds to be fulfilled, by bounds to not be fulfilled and by the risk model.
+     * @return
+     */
+    public static long[] hookGetNumEvaluations() {
+        return new long[] { boundsFulfilled.get(), boundsNotFulfilled.get(), modelEvaluations.get() };
+    }
+
     /** SVUID */
     private static final long serialVersionUID = -2711630526630937284L;
     /** The threshold */
     private final double    threshold;
+    /** 
+     * Fraction of tuples suppressed for the last transformation that could be made fulfill this criterion.
+     * Shared by concurrent checks and only used as a starting point, the search is correct for any value.
+     */
+    private transient volatile double lastSuppression = 0d;
 
     /**
      * Creates a new instance of this criterion.
@@ -65,42 +169,78 @@ public abstract class RiskBasedCriterion extends SampleBasedCriterion{
     public void enforce(final HashGroupifyDistribution distribution,
                         final int numMaxSuppressedOutliers) {
         
+        // Total number of tuples
+        final int numTuples = useRiskBounds ? getNumTuples(distribution.getHistogram().getHistogram()) : 0;
+        
+        // Prepare incremental histogram
+        IncrementalHistogram histogram = null;
+        double risk = Double.NaN;
+        boolean fulfilled;
+        if (useIncrementalHistogram) {
+            histogram = new IncrementalHistogram(distribution.getHistogram().getHistogram());
+            risk = getRisk(histogram);
+            if (Double.isNaN(risk)) {
+                histogram = null;
+                fulfilled = RiskBasedCriterion.this.isFulfilled(distribution, numTuples);
+            } else {
+                fulfilled = risk <= threshold;
+            }
+        } else {
+            fulfilled = RiskBasedCriterion.this.isFulfilled(distribution, numTuples);
+        }
+        
         // Early abort
-        if (RiskBasedCriterion.this.isFulfilled(distribution)) {
+        if (fulfilled) {
             return;
         }
-       
-        // Binary search
-        if (useBinarySearch) {
-            distribution.suppressWhileNotFulfilledBinary(new PrivacyCondition(){
+        
+        // Search on the histogram and apply the result
+        if (histogram != null && (useBracketingSearch || pool != null)) {
+            final int target = useBracketingSearch ? getMinimalSuppression(histogram, risk) :
+                                                     getMinimalSuppressionBatch(histogram);
+            distribution.suppressWhileNotFulfilledLinear(new PrivacyCondition(){
                 public State isFulfilled(HashGroupifyDistribution distribution) {
-                    boolean fulfilled = RiskBasedCriterion.this.isFulfilled(distribution);
-                    
-                    // Early abort
-                    if (!fulfilled && distribution.getNumOfSuppressedTuples() > numMaxSuppressedOutliers) {
+                    int suppressed = distribution.getNumOfSuppressedTuples();
+                    if (target != -1 && suppressed >= target) {
+                        return State.FULFILLED;
+                    } else if (target == -1 || suppressed > numMaxSuppressedOutliers) {
                         return State.ABORT;
-                        
-                    // Go on
                     } else {
-                        return fulfilled ? State.FULFILLED : State.NOT_FULFILLED;
+                        return State.NOT_FULFILLED;
                     }
                 }
             });
-        } else {
-            distribution.suppressWhileNotFulfilledLinear(new PrivacyCondition(){
-                public State isFulfilled(HashGroupifyDistribution distribution) {
-                    boolean fulfilled = RiskBasedCriterion.this.isFulfilled(distribution);
+            return;
+        }
+        
+        // Condition
+        final IncrementalHistogram _histogram = histogram;
+        PrivacyCondition condition = new PrivacyCondition(){
+            public State isFulfilled(HashGroupifyDistribution distribution) {
+                boolean fulfilled;
+                if (_histogram != null) {
+                    _histogram.suppressTuples(distribution.getNumOfSuppressedTuples());
+                    fulfilled = getRisk(_histogram) <= threshold;
+                } else {
+                    fulfilled = RiskBasedCriterion.this.isFulfilled(distribution, numTuples);
+                }
+                
+                // Early abort
+                if (!fulfilled && distribution.getNumOfSuppressedTuples() > numMaxSuppressedOutliers) {
+                    return State.ABORT;
                     
-                    // Early abort
-                    if (!fulfilled && distribution.getNumOfSuppressedTuples() > numMaxSuppressedOutliers) {
-                        return State.ABORT;
-                        
-                    // Go on
-                    } else {
-                        return fulfilled ? State.FULFILLED : State.NOT_FULFILLED;
-                    }
+                // Go on
+                } else {
+                    return fulfilled ? State.FULFILLED : State.NOT_FULFILLED;
                 }
-            });
+            }
+        };
+       
+        // Binary search
+        if (useBinarySearch) {
+            distribution.suppressWhileNotFulfilledBinary(condition);
+        } else {
+            distribution.suppressWhileNotFulfilledLinear(condition);
         }
     }
     
@@ -119,6 +259,292 @@ public abstract class RiskBasedCriterion extends SampleBasedCriterion{
         return threshold;
     }
 
+    /**
+     * Returns the number of tuples in the given histogram
+     * 
+     * @param histogram
+     * @return
+     */
+    private int getNumTuples(int[] histogram) {
+        int tuples = 0;
+        for (int i = 0; i < histogram.length; i += 2) {
+            tuples += histogram[i] * histogram[i + 1];
+        }
+        return tuples;
+    }
+
+    /**
+     * Returns whether the distribution fulfills this criterion. For uniqueness criteria, bounds are
+     * evaluated first, if enabled. Each population unique is a sample unique, so that the fraction
+     * of sample uniques among the remaining tuples is an upper bound for uniqueness. For sample
+     * uniqueness, the fraction of sample uniques among all tuples is a lower bound.
+     * 
+     * @param distribution
+     * @param numTuples The number of tuples before suppression
+     * @return
+     */
+    private boolean isFulfilled(HashGroupifyDistribution distribution, int numTuples) {
+
+        // Bounds
+        if (useRiskBounds && (this instanceof PopulationUniqueness || this instanceof SampleUniqueness)) {
+
+            // Collect
+            int[] histogram = distribution.getHistogram().getHistogram();
+            int uniques = 0;
+            for (int i = 0; i < histogram.length; i += 2) {
+                if (histogram[i] == 1) {
+                    uniques += histogram[i + 1];
+                }
+            }
+            int remaining = getNumTuples(histogram);
+
+            // Check upper bound
+            double upper = remaining == 0 ? 0d : (double) uniques / (double) remaining;
+            if (upper <= threshold) {
+                boundsFulfilled.incrementAndGet();
+                return true;
+            }
+
+            // Check lower bound
+            double lower = numTuples == 0 ? 0d : (double) uniques / (double) numTuples;
+            if (this instanceof SampleUniqueness && lower > threshold) {
+                boundsNotFulfilled.incrementAndGet();
+                return false;
+            }
+        }
+
+        // Evaluate model
+        modelEvaluations.incrementAndGet();
+        return isFulfilled(distribution);
+    }
+
+    /**
+     * Returns for each of the given numbers of suppressed classes whether this criterion is fulfilled.
+     * The levels are evaluated on copies, so that the given histogram is not modified, and
+     * concurrently, if batch search has been enabled. Criteria must evaluate histograms in a
+     * thread-safe manner in this case.
+     * 
+     * @param histogram
+     * @param classes
+     * @return
+     * @throws UnsupportedOperationException if this criterion can not be evaluated on histograms,
+     *         e.g. population uniqueness
+     */
+    public boolean[] isFulfilled(final IncrementalHistogram histogram, final int[] classes) {
+
+        // Prepare
+        boolean[] result = new boolean[classes.length];
+        ExecutorService pool = RiskBasedCriterion.pool;
+
+        // Sequential
+        if (pool == null || classes.length == 1) {
+            IncrementalHistogram copy = new IncrementalHistogram(histogram);
+            for (int i = 0; i < classes.length; i++) {
+                result[i] = isBelowThreshold(getRisk(copy, classes[i]));
+            }
+            return result;
+        }
+
+        // Concurrent
+        List<Callable<Double>> tasks = new ArrayList<Callable<Double>>();
+        for (final int level : classes) {
+            tasks.add(new Callable<Double>() {
+                @Override
+                public Double call() throws Exception {
+                    return getRisk(new IncrementalHistogram(histogram), level);
+                }
+            });
+        }
+        try {
+            List<Future<Double>> risks = pool.invokeAll(tasks);
+            for (int i = 0; i < classes.length; i++) {
+                result[i] = isBelowThreshold(risks.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+        return result;
+    }
+
+    /**
+     * Searches for the minimal number of smallest classes that must be suppressed to fulfill this
+     * criterion. In each round, a batch of equally spaced levels is evaluated with a single call.
+     * The histogram must not fulfill the criterion without suppression.
+     * 
+     * @param histogram
+     * @return The number of tuples to suppress, -1 if the criterion can not be fulfilled
+     */
+    private int getMinimalSuppressionBatch(IncrementalHistogram histogram) {
+
+        // Init: nothing suppressed does not fulfill the criterion, an upper bound is not known
+        int classes = histogram.getTotalNumClasses();
+        int low = 0;
+        int high = classes + 1;
+        int size = Math.max(1, threads);
+
+        // Narrow the interval
+        while (high - low > 1) {
+
+            // Equally spaced probes
+            int[] probes = new int[Math.min(size, high - low - 1)];
+            for (int i = 0; i < probes.length; i++) {
+                probes[i] = low + (int) ((long) (high - low) * (i + 1) / (probes.length + 1));
+            }
+
+            // Evaluate and update interval
+            boolean[] fulfilled = isFulfilled(histogram, probes);
+            int first = 0;
+            while (first < probes.length && !fulfilled[first]) {
+                first++;
+            }
+            low = first > 0 ? probes[first - 1] : low;
+            high = first < probes.length ? probes[first] : high;
+        }
+
+        // Not possible
+        if (high > classes) {
+            return -1;
+        }
+
+        // Return
+        histogram.suppressClasses(high);
+        return histogram.getNumSuppressedTuples();
+    }
+
+    /**
+     * Searches for the minimal number of smallest classes that must be suppressed to fulfill
+     * this criterion. Starts at the level of suppression of the previous transformation, gallops
+     * exponentially to bracket the solution and narrows the bracket by alternating interpolation,
+     * based on the risks observed at its bounds, and bisection. The histogram must not fulfill
+     * the criterion without suppression.
+     * 
+     * @param histogram
+     * @param risk The risk without suppression
+     * @return The number of tuples to suppress, -1 if the criterion can not be fulfilled
+     */
+    private int getMinimalSuppression(IncrementalHistogram histogram, double risk) {
+
+        // Init: nothing suppressed does not fulfill the criterion
+        int classes = histogram.getTotalNumClasses();
+        int low = 0;
+        int high = -1;
+        double riskLow = risk;
+        double riskHigh = Double.NaN;
+
+        // Start where some previous transformation ended
+        double previous = Math.max(0d, Math.min(1d, lastSuppression));
+        histogram.suppressTuples((int) Math.round(previous * histogram.getTotalNumTuples()));
+        int start = Math.max(1, histogram.getNumSuppressedClasses());
+        risk = getRisk(histogram, start);
+
+        // Gallop downwards
+        if (risk <= threshold) {
+            high = start;
+            riskHigh = risk;
+            for (int step = 1; high - step > low; step <<= 1) {
+                int probe = high - step;
+                risk = getRisk(histogram, probe);
+                if (risk <= threshold) {
+                    high = probe;
+                    riskHigh = risk;
+                } else {
+                    low = probe;
+                    riskLow = risk;
+                    break;
+                }
+            }
+
+        // Gallop upwards
+        } else {
+            low = start;
+            riskLow = risk;
+            for (int step = 1; high == -1 && low < classes; step <<= 1) {
+                int probe = Math.min(classes, low + step);
+                risk = getRisk(histogram, probe);
+                if (risk <= threshold) {
+                    high = probe;
+                    riskHigh = risk;
+                } else {
+                    low = probe;
+                    riskLow = risk;
+                }
+            }
+            if (high == -1) {
+                return -1;
+            }
+        }
+
+        // Narrow the bracket
+        boolean interpolate = true;
+        while (high - low > 1) {
+            int probe = low + (high - low) / 2;
+            if (interpolate && riskLow > riskHigh) {
+                probe = low + (int) Math.round((riskLow - threshold) / (riskLow - riskHigh) * (high - low));
+                probe = Math.max(low + 1, Math.min(high - 1, probe));
+            }
+            interpolate = !interpolate;
+            risk = getRisk(histogram, probe);
+            if (risk <= threshold) {
+                high = probe;
+                riskHigh = risk;
+            } else {
+                low = probe;
+                riskLow = risk;
+            }
+        }
+
+        // Remember and return
+        histogram.suppressClasses(high);
+        lastSuppression = (double) histogram.getNumSuppressedTuples() / (double) histogram.getTotalNumTuples();
+        return histogram.getNumSuppressedTuples();
+    }
+
+    /**
+     * Returns the risk for the given histogram after suppressing the given number of smallest classes
+     * 
+     * @param histogram
+     * @param classes
+     * @return
+     */
+    private double getRisk(IncrementalHistogram histogram, int classes) {
+        histogram.suppressClasses(classes);
+        return getRisk(histogram);
+    }
+
+    /**
+     * Returns the risk for the given histogram of class sizes, NaN if this criterion can not be
+     * evaluated on histograms. Sample uniqueness is the fraction of tuples that are not suppressed
+     * and unique. Population models require a histogram that can only be obtained from a
+     * distribution and are therefore not supported.
+     * @param histogram
+     * @return
+     */
+    protected double getRisk(IncrementalHistogram histogram) {
+        if (this instanceof SampleUniqueness) {
+            int tuples = histogram.getNumTuples();
+            return tuples == 0 ? 0d : (double) histogram.getNumClassesOfSize(1) / (double) tuples;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Returns whether the given risk, which has been evaluated on a histogram, does not exceed the threshold
+     * @param risk
+     * @return
+     */
+    private boolean isBelowThreshold(double risk) {
+        if (Double.isNaN(risk)) {
+            throw new UnsupportedOperationException("Criterion can not be evaluated on histograms: " + this);
+        }
+        return risk <= threshold;
+    }
+
     /**
      * To be implemented by risk-based criteria
      * @param distribution
@@ -17,6 +17,17 @@
 
 package org.deidentifier.arx.risk;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.deidentifier.arx.ARXPopulationModel;
 import org.deidentifier.arx.risk.RiskEstimateBuilder.WrappedBoolean;
 import org.deidentifier.arx.risk.RiskEstimateBuilder.WrappedInteger;
@@ -49,8 +60,130 @@ public class ModelPitman extends RiskModelPopulation {
         usePolygamma = use;
     }
 
+    /** Hook for benchmarking purposes*/
+    private static boolean useWarmStart = false;
+
+    /** The parameters (theta, alpha) of the last converged estimate of the current thread */
+    private static final ThreadLocal<Vector2D> warmStart = new ThreadLocal<Vector2D>();
+
+    /**
+     * Hook for benchmarking purposes. When enabled, the solver is seeded with the
+     * parameters of the last estimate that converged on the current thread. As FLASH
+     * checks neighboring transformations one after another, these are typically the
+     * parameters of a direct predecessor or successor in the lattice. If the solver does
+     * not converge from there, the moment-based initial guess is tried next.
+     * @param use
+     */
+    public static void hookUseWarmStart(boolean use) {
+        useWarmStart = use;
+        warmStart.remove();
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static boolean useRecurrence = false;
+
+    /**
+     * Hook for benchmarking purposes. When enabled, the closed form evaluates the per-class
+     * polygamma differences with recurrence relations over class sizes in ascending order
+     * instead of calling the polygamma functions for each class.
+     * @param use
+     */
+    public static void hookUseRecurrence(boolean use) {
+        useRecurrence = use;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static boolean usePrefixSums = false;
+
+    /**
+     * Hook for benchmarking purposes. When enabled, the iterative implementation processes classes
+     * in ascending order of size and extends the inner sums from one class to the next. Sums that
+     * only depend on theta or alpha are reused while the respective parameter is unchanged.
+     * @param use
+     */
+    public static void hookUsePrefixSums(boolean use) {
+        usePrefixSums = use;
+    }
+
+    /** Maximal distance between two class sizes that is bridged with recurrence relations */
+    private static final int MAX_RECURRENCE_STEPS = 64;
+
+    /** Version of the solver. Must be incremented whenever a change may alter its results, as it is part of cache keys. */
+    private static final int MODEL_VERSION = 1;
+
+    /** Hook for benchmarking purposes*/
+    private static ModelPitmanCache cache = null;
+
+    /**
+     * Hook for benchmarking purposes. Results are looked up in and stored to the given
+     * cache, which is shared by all instances. Pass <code>null</code> to disable caching.
+     * The cache is not used with warm starts, as their results depend on previous instances.
+     * @param cache
+     */
+    public static void hookSetCache(ModelPitmanCache cache) {
+        ModelPitman.cache = cache;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static ForkJoinPool pool = null;
+
+    /**
+     * Hook for benchmarking purposes. When the given number of threads is larger than one, the
+     * prepared start values of the solver are tried in parallel. Tries that come after a converged
+     * try in the sequential order are cancelled, and the first converged try in this order is used,
+     * so results match the sequential solver. If no prepared start value converges, the solver
+     * continues with random start values. Pass 0 to try start values sequentially.
+     * @param threads
+     */
+    public static synchronized void hookUseParallelStarts(int threads) {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static long             timeLimit = 0;
+
+    /** Number of estimates that exceeded the time limit */
+    private static final AtomicLong timeouts  = new AtomicLong();
+
+    /**
+     * Hook for benchmarking purposes. Sets a time limit in milliseconds for each estimate. If the
+     * limit is exceeded, the population size is returned as a conservative upper bound, so that
+     * risk thresholds are never considered to be met. Pass 0 to disable the limit.
+     * @param millis
+     */
+    public static void hookSetTimeLimit(long millis) {
+        timeLimit = millis;
+    }
+
+    /**
+     * Hook for benchmarking purposes. Returns the number of estimates that exceeded the time limit
+     * @return
+     */
+    public static long hookGetNumTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * Thrown when an estimate exceeds its time limit
+     * 
+     * @author Fabian Prasser
+     */
+    private static class TimeoutException extends RuntimeException {
+        /** SVUID */
+        private static final long serialVersionUID = 4316213860391736525L;
+    }
+
+    /** The deadline in nanoseconds, 0 if there is none */
+    private final long    deadline;
+
+    /** Whether the time limit has been exceeded */
+    private final boolean timeout;
+
     /** The result */
-    private final double numUniques;
+    private final double  numUniques;
 
     /**
      * Creates a new instance
@@ -69,11 +202,110 @@ public class ModelPitman extends RiskModelPopulation {
         
         super(histogram, model, sampleSize, stop, new WrappedInteger());
 
+        // Lookup. Results of warm starts depend on previous instances.
+        ModelPitmanCache cache = useWarmStart ? null : ModelPitman.cache;
+        int[] classes = histogram.getHistogram();
+        double p = getPopulationSize();
+        String configuration = cache != null ? getConfiguration(config) : null;
+        Double cached = cache != null ? cache.get(classes, sampleSize, p, configuration) : null;
+
+        // Compile the result
+        long limit = ModelPitman.timeLimit;
+        this.deadline = limit > 0 ? System.nanoTime() + limit * 1000000L : 0L;
+        if (cached != null) {
+            this.numUniques = cached;
+            this.timeout = false;
+        } else {
+            double numUniques;
+            boolean timeout = false;
+            try {
+                numUniques = getNumUniques(classes, sampleSize, p, config);
+            } catch (TimeoutException e) {
+                
+                // The number of population uniques is bounded by the population size
+                numUniques = p;
+                timeout = true;
+                timeouts.incrementAndGet();
+            }
+            this.numUniques = numUniques;
+            this.timeout = timeout;
+            if (cache != null && !timeout) {
+                cache.put(classes, sampleSize, p, configuration, this.numUniques);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of uniques
+     * 
+     * @return
+     */
+    public double getNumUniques() {
+        return this.numUniques;
+    }
+
+    /**
+     * Returns whether the time limit has been exceeded, in which case the result is
+     * an upper bound on the number of uniques
+     * 
+     * @return
+     */
+    public boolean isTimeout() {
+        return this.timeout;
+    }
+
+    /**
+     * Checks for interrupts and whether the time limit has been exceeded
+     */
+    private void checkInterruptOrTimeout() {
+        checkInterrupt();
+        if (deadline != 0L && System.nanoTime() - deadline > 0L) {
+            throw new TimeoutException();
+        }
+    }
+
+    /**
+     * Returns a description of all settings which may influence the result, used as part of
+     * cache keys. Parallel starts produce the same results as sequential starts, and results
+     * which exceeded the time limit or were computed with warm starts are not cached, so
+     * neither is included.
+     * 
+     * @param config
+     * @return
+     */
+    private static String getConfiguration(final NewtonRaphsonConfiguration<?> config) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("version=").append(MODEL_VERSION);
+        builder.append(",polygamma=").append(usePolygamma);
+        builder.append(",recurrence=").append(useRecurrence);
+        builder.append(",prefixSums=").append(usePrefixSums);
+        builder.append(",accuracy=").append(config.getAccuracy());
+        builder.append(",iterationsPerTry=").append(config.getIterationsPerTry());
+        builder.append(",iterationsTotal=").append(config.getIterationsTotal());
+        builder.append(",timePerTry=").append(config.getTimePerTry());
+        builder.append(",timeTotal=").append(config.getTimeTotal());
+        builder.append(",startValues=").append(Arrays.deepHashCode(config.getPreparedStartValues()));
+        return builder.toString();
+    }
+
+    /**
+     * Solves the maximum likelihood estimates and returns the number of uniques
+     * 
+     * @param classes
+     * @param sampleSize
+     * @param p
+     * @param config
+     * @return
+     */
+    private double getNumUniques(final int[] classes,
+                                 final int sampleSize,
+                                 final double p,
+                                 final NewtonRaphsonConfiguration<?> config) {
+
         // Init
         double c1 = getNumClassesOfSize(1);
         double c2 = getNumClassesOfSize(2);
         double u = getNumClasses();
-        double p = getPopulationSize();
         double n = sampleSize;
 
         // Initial guess
@@ -83,27 +315,62 @@ public class ModelPitman extends RiskModelPopulation {
                    (((2 * c1 * u) + (c1 * c)) - (n * c));
         double a = ((t * (c1 - n)) + ((n - 1) * c1)) / (n * u);
 
+        // Try a warm start first, then the initial guess
+        Vector2D result = new Vector2D(Double.NaN, Double.NaN);
+        Vector2D previous = useWarmStart ? warmStart.get() : null;
+        if (previous != null) {
+            result = solve(classes, u, n, previous.x, previous.y, config);
+        }
+        if (Double.isNaN(result.x) || Double.isNaN(result.y)) {
+            result = solve(classes, u, n, t, a, config);
+        }
+
+        // Compile the result
+        double numUniques = getResult(result, p);
+
+        // Remember parameters for warm starts
+        if (useWarmStart && !Double.isNaN(numUniques)) {
+            warmStart.set(new Vector2D(result.x, result.y));
+        }
+        return numUniques;
+    }
+
+    /**
+     * Solves the maximum likelihood estimates, starting with the given parameters
+     * 
+     * @param classes
+     * @param u
+     * @param n
+     * @param t
+     * @param a
+     * @param config
+     * @return
+     */
+    private Vector2D solve(final int[] classes,
+                           final double u,
+                           final double n,
+                           final double t,
+                           final double a,
+                           final NewtonRaphsonConfiguration<?> config) {
+
         // Prepare
-        NewtonRaphson2D solver = null;
         Vector2D result = new Vector2D(Double.NaN, Double.NaN);
 
         // Solve the Maximum Likelihood Estimates with Polygamma functions
         if (usePolygamma) {
-            solver = new NewtonRaphson2D(getMasterFunctionClosed(histogram.getHistogram(), u, n)).configure(config);
-            result = solver.solve(new Vector2D(t, a));
+            result = solve(true, classes, u, n, t, a, config);
         }
 
         // If no result found, use iterative implementation
         if (Double.isNaN(result.x) || Double.isNaN(result.y)) {
 
-            solver = new NewtonRaphson2D(getMasterFunctionIterative(histogram.getHistogram(), u, n)).configure(config);
-            result = solver.solve(new Vector2D(t, a));
+            result = solve(false, classes, u, n, t, a, config);
 
             // Else check the result against the iterative implementation
         } else {
 
             // Run test
-            Vector2D test = getObjectFunctionsIterative(histogram.getHistogram(), u, n).evaluate(result);
+            Vector2D test = getObjectFunctionsIterative(classes, u, n).evaluate(result);
 
             // Check result of test
             if (Double.isNaN(test.x) || Double.isNaN(test.y) ||
@@ -111,24 +378,136 @@ public class ModelPitman extends RiskModelPopulation {
                 Math.abs(test.y) > config.getAccuracy()) {
 
                 // Use iterative implementation
-                solver = new NewtonRaphson2D(getMasterFunctionIterative(histogram.getHistogram(),
-                                                                        u,
-                                                                        n)).configure(config);
-                result = solver.solve(new Vector2D(t, a));
+                result = solve(false, classes, u, n, t, a, config);
             }
         }
+        return result;
+    }
 
-        // Compile the result
-        this.numUniques = getResult(result, p);
+    /**
+     * Solves the maximum likelihood estimates with the closed or the iterative implementation,
+     * starting with the given parameters
+     * 
+     * @param closed
+     * @param classes
+     * @param u
+     * @param n
+     * @param t
+     * @param a
+     * @param config
+     * @return
+     */
+    private Vector2D solve(final boolean closed,
+                           final int[] classes,
+                           final double u,
+                           final double n,
+                           final double t,
+                           final double a,
+                           final NewtonRaphsonConfiguration<?> config) {
+
+        // Sequential
+        ForkJoinPool pool = ModelPitman.pool;
+        double[][] starts = config.getPreparedStartValues();
+        if (pool == null || starts == null || starts.length == 0) {
+            NewtonRaphson2D solver = new NewtonRaphson2D(closed ? getMasterFunctionClosed(classes, u, n) :
+                                                                  getMasterFunctionIterative(classes, u, n)).configure(config);
+            return solver.solve(new Vector2D(t, a));
+        }
+
+        // Each start value is tried exactly once
+        final NewtonRaphsonConfiguration<?> single = NewtonRaphsonConfiguration.create();
+        single.accuracy(config.getAccuracy());
+        single.iterationsPerTry(config.getIterationsPerTry());
+        single.iterationsTotal(config.getIterationsPerTry());
+        single.timePerTry(config.getTimePerTry());
+        single.timeTotal(config.getTimePerTry());
+
+        // Prepare tries in the order of the sequential solver
+        final AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        List<Callable<Vector2D>> tries = new ArrayList<Callable<Vector2D>>();
+        tries.add(getTry(0, closed, classes, u, n, t, a, single, best));
+        for (int i = 0; i < starts.length; i++) {
+            tries.add(getTry(i + 1, closed, classes, u, n, starts[i][0], starts[i][1], single, best));
+        }
+
+        // Solve and use the first try that converged, which is what the sequential solver returns
+        try {
+            for (Future<Vector2D> future : pool.invokeAll(tries)) {
+                try {
+                    return future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException && !(e.getCause() instanceof CancellationException)) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                } catch (CancellationException e) {
+                    // Try next
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Vector2D(Double.NaN, Double.NaN);
+        }
+
+        // No start value converged: continue with random start values like the sequential solver
+        NewtonRaphson2D solver = new NewtonRaphson2D(closed ? getMasterFunctionClosed(classes, u, n) :
+                                                              getMasterFunctionIterative(classes, u, n)).configure(config);
+        return solver.solve(new Vector2D(t, a));
     }
 
     /**
-     * Returns the number of uniques
+     * Returns a single try of the parallel solver. A try fails with a cancellation exception
+     * if it does not converge or if a try with a lower index has already converged.
      * 
+     * @param index
+     * @param closed
+     * @param classes
+     * @param u
+     * @param n
+     * @param t
+     * @param a
+     * @param config
+     * @param best The lowest index of a try that converged
      * @return
      */
-    public double getNumUniques() {
-        return this.numUniques;
+    private Callable<Vector2D> getTry(final int index,
+                                      final boolean closed,
+                                      final int[] classes,
+                                      final double u,
+                                      final double n,
+                                      final double t,
+                                      final double a,
+                                      final NewtonRaphsonConfiguration<?> config,
+                                      final AtomicInteger best) {
+
+        return new Callable<Vector2D>() {
+            @Override
+            public Vector2D call() throws Exception {
+
+                // Prepare
+                final Function<Vector2D, Pair<Vector2D, SquareMatrix2D>> function = closed ? getMasterFunctionClosed(classes, u, n) :
+                                                                                             getMasterFunctionIterative(classes, u, n);
+                NewtonRaphson2D solver = new NewtonRaphson2D(new Function<Vector2D, Pair<Vector2D, SquareMatrix2D>>() {
+                    @Override
+                    public Pair<Vector2D, SquareMatrix2D> evaluate(Vector2D input) {
+                        if (best.get() < index) {
+                            throw new CancellationException();
+                        }
+                        return function.evaluate(input);
+                    }
+                }).configure(config);
+
+                // Solve
+                Vector2D result = solver.solve(new Vector2D(t, a));
+                if (Double.isNaN(result.x) || Double.isNaN(result.y)) {
+                    throw new CancellationException();
+                }
+                int current = best.get();
+                while (index < current && !best.compareAndSet(current, index)) {
+                    current = best.get();
+                }
+                return result;
+            }
+        };
     }
 
     /**
@@ -149,6 +528,7 @@ public class ModelPitman extends RiskModelPopulation {
             private final Vector2D                       object      = new Vector2D();
             private final Pair<Vector2D, SquareMatrix2D> result      = new Pair<Vector2D, SquareMatrix2D>(object,
                                                                                                           derivatives);
+            private final int[]                          sorted      = useRecurrence ? getSortedClasses(classes) : null;
 
             @Override
             public Pair<Vector2D, SquareMatrix2D> evaluate(Vector2D input) {
@@ -173,7 +553,7 @@ public class ModelPitman extends RiskModelPopulation {
                 double o3 = ((-t * val1) + (a * val0) + (t * val4)) / (a * a);
                 double o2 = Gamma.digamma(n + t) - Gamma.digamma(t + 1d);
                 
-                checkInterrupt();
+                checkInterruptOrTimeout();
 
                 double d2 = Gamma.trigamma(t + 1d) - Gamma.trigamma(n + t);
 
@@ -182,15 +562,43 @@ public class ModelPitman extends RiskModelPopulation {
                 double o4 = 0;
                 double val6 = Gamma.digamma(1d - a);
                 double val7 = Gamma.trigamma(1d - a);
-                for (int i = 0; i < classes.length; i += 2) {
-                    int key = classes[i];
-                    int value = classes[i + 1];
-
-                    if (key != 1) {
-                        d4 += value * (val7 - Gamma.trigamma(key - a));
-                        o4 += value * (Gamma.digamma(key - a) - val6);
+                if (sorted != null) {
+
+                    // We maintain trigamma(1 - a) - trigamma(key - a) and digamma(key - a) - digamma(1 - a)
+                    double val8 = 0;
+                    double val9 = 0;
+                    int previous = 1;
+                    for (int i = 0; i < sorted.length; i += 2) {
+                        int key = sorted[i];
+                        int value = sorted[i + 1];
+
+                        // Jump or step
+                        if (key - previous > MAX_RECURRENCE_STEPS) {
+                            val8 = val7 - Gamma.trigamma(key - a);
+                            val9 = Gamma.digamma(key - a) - val6;
+                        } else {
+                            for (int j = previous; j < key; j++) {
+                                double val10 = 1d / (j - a);
+                                val8 += val10 * val10;
+                                val9 += val10;
+                            }
+                        }
+                        previous = key;
+                        d4 += value * val8;
+                        o4 += value * val9;
+                        checkInterruptOrTimeout();
+                    }
+                } else {
+                    for (int i = 0; i < classes.length; i += 2) {
+                        int key = classes[i];
+                        int value = classes[i + 1];
+
+                        if (key != 1) {
+                            d4 += value * (val7 - Gamma.trigamma(key - a));
+                            o4 += value * (Gamma.digamma(key - a) - val6);
+                        }
+                        checkInterruptOrTimeout();
                     }
-                    checkInterrupt();
                 }
 
                 // Store
@@ -225,6 +633,10 @@ public class ModelPitman extends RiskModelPopulation {
             private final Vector2D                       object      = new Vector2D();
             private final Pair<Vector2D, SquareMatrix2D> result      = new Pair<Vector2D, SquareMatrix2D>(object,
                                                                                                           derivatives);
+            private final int[]                          sorted      = usePrefixSums ? getSortedClasses(classes) : null;
+            private final double[]                       sums        = new double[4];
+            private double                               lastTheta   = Double.NaN;
+            private double                               lastAlpha   = Double.NaN;
 
             @Override
             public Pair<Vector2D, SquareMatrix2D> evaluate(Vector2D input) {
@@ -260,33 +672,55 @@ public class ModelPitman extends RiskModelPopulation {
                     o3 += val2;
 
                 }
-                checkInterrupt();
+                checkInterruptOrTimeout();
 
-                // For each class...
-                for (int i = 0; i < classes.length; i += 2) {
-                    int key = classes[i];
-                    int value = classes[i + 1];
-
-                    if (key != 1) {
-                        double val1 = 0;
-                        double val2 = 0;
-                        for (int j = 1; j < key; j++) {
-                            double val3 = j - a;
-                            val1 += 1d / (val3 * val3);
-                            val2 += 1d / val3;
+                // Shared partial sums
+                if (sorted != null) {
+
+                    // Sums depending on alpha
+                    if (a != lastAlpha) {
+                        getClassSumsIncremental(sorted, a, sums);
+                        lastAlpha = a;
+                    }
+
+                    // Sums depending on theta
+                    if (t != lastTheta) {
+                        getThetaSums(t, n, sums);
+                        lastTheta = t;
+                    }
+                    d4 = sums[0];
+                    o4 = sums[1];
+                    d2 = sums[2];
+                    o2 = sums[3];
+
+                } else {
+
+                    // For each class...
+                    for (int i = 0; i < classes.length; i += 2) {
+                        int key = classes[i];
+                        int value = classes[i + 1];
+
+                        if (key != 1) {
+                            double val1 = 0;
+                            double val2 = 0;
+                            for (int j = 1; j < key; j++) {
+                                double val3 = j - a;
+                                val1 += 1d / (val3 * val3);
+                                val2 += 1d / val3;
+                            }
+                            d4 += value * val1;
+                            o4 += value * val2;
                         }
-                        d4 += value * val1;
-                        o4 += value * val2;
+                        checkInterruptOrTimeout();
                     }
-                    checkInterrupt();
-                }
 
-                checkInterrupt();
+                    checkInterruptOrTimeout();
 
-                for (int i = 1; i < n; i++) {
-                    double val0 = (t + i);
-                    d2 += 1d / (val0 * val0);
-                    o2 += 1d / val0;
+                    for (int i = 1; i < n; i++) {
+                        double val0 = (t + i);
+                        d2 += 1d / (val0 * val0);
+                        o2 += 1d / val0;
+                    }
                 }
 
                 // Store
@@ -316,7 +750,11 @@ public class ModelPitman extends RiskModelPopulation {
         return new Function<Vector2D, Vector2D>() {
 
             // Init
-            private final Vector2D object = new Vector2D();
+            private final Vector2D object    = new Vector2D();
+            private final int[]    sorted    = usePrefixSums ? getSortedClasses(classes) : null;
+            private final double[] sums      = new double[4];
+            private double         lastTheta = Double.NaN;
+            private double         lastAlpha = Double.NaN;
 
             @Override
             public Vector2D evaluate(Vector2D input) {
@@ -341,29 +779,49 @@ public class ModelPitman extends RiskModelPopulation {
                     o3 += val2;
 
                 }
-                checkInterrupt();
+                checkInterruptOrTimeout();
 
-                // For each class...
-                for (int i = 0; i < classes.length; i += 2) {
-                    int key = classes[i];
-                    int value = classes[i + 1];
-
-                    if (key != 1) {
-                        double val2 = 0;
-                        for (int j = 1; j < key; j++) {
-                            double val3 = j - a;
-                            val2 += 1d / val3;
+                // Shared partial sums
+                if (sorted != null) {
+
+                    // Sums depending on alpha
+                    if (a != lastAlpha) {
+                        getClassSumsIncremental(sorted, a, sums);
+                        lastAlpha = a;
+                    }
+
+                    // Sums depending on theta
+                    if (t != lastTheta) {
+                        getThetaSums(t, n, sums);
+                        lastTheta = t;
+                    }
+                    o4 = sums[1];
+                    o2 = sums[3];
+
+                } else {
+
+                    // For each class...
+                    for (int i = 0; i < classes.length; i += 2) {
+                        int key = classes[i];
+                        int value = classes[i + 1];
+
+                        if (key != 1) {
+                            double val2 = 0;
+                            for (int j = 1; j < key; j++) {
+                                double val3 = j - a;
+                                val2 += 1d / val3;
+                            }
+                            o4 += value * val2;
                         }
-                        o4 += value * val2;
+                        checkInterruptOrTimeout();
                     }
-                    checkInterrupt();
-                }
 
-                checkInterrupt();
+                    checkInterruptOrTimeout();
 
-                for (int i = 1; i < n; i++) {
-                    double val0 = (t + i);
-                    o2 += 1d / val0;
+                    for (int i = 1; i < n; i++) {
+                        double val0 = (t + i);
+                        o2 += 1d / val0;
+                    }
                 }
 
                 // Store
@@ -376,6 +834,99 @@ public class ModelPitman extends RiskModelPopulation {
         };
     }
 
+    /**
+     * Computes the sums over all classes of the iterative implementation, which only depend on alpha.
+     * Classes must be sorted by size in ascending order, so that the inner sums can be extended
+     * from one class to the next. Stores the second derivative at index 0 and the object function
+     * at index 1 of the given array.
+     * 
+     * @param sorted
+     * @param a
+     * @param sums
+     */
+    private void getClassSumsIncremental(final int[] sorted, final double a, final double[] sums) {
+
+        double d4 = 0;
+        double o4 = 0;
+        double val1 = 0;
+        double val2 = 0;
+        int previous = 1;
+
+        // For each class...
+        for (int i = 0; i < sorted.length; i += 2) {
+            int key = sorted[i];
+            int value = sorted[i + 1];
+
+            // Extend inner sums
+            for (int j = previous; j < key; j++) {
+                double val3 = j - a;
+                val1 += 1d / (val3 * val3);
+                val2 += 1d / val3;
+            }
+            previous = key;
+            d4 += value * val1;
+            o4 += value * val2;
+            checkInterruptOrTimeout();
+        }
+
+        sums[0] = d4;
+        sums[1] = o4;
+    }
+
+    /**
+     * Computes the sums of the iterative implementation, which only depend on theta. Stores the
+     * second derivative at index 2 and the object function at index 3 of the given array.
+     * 
+     * @param t
+     * @param n
+     * @param sums
+     */
+    private void getThetaSums(final double t, final double n, final double[] sums) {
+
+        double d2 = 0;
+        double o2 = 0;
+        checkInterruptOrTimeout();
+        for (int i = 1; i < n; i++) {
+            double val0 = (t + i);
+            d2 += 1d / (val0 * val0);
+            o2 += 1d / val0;
+        }
+
+        sums[2] = d2;
+        sums[3] = o2;
+    }
+
+    /**
+     * Returns the given histogram with classes sorted by size in ascending order
+     * 
+     * @param classes
+     * @return
+     */
+    private int[] getSortedClasses(final int[] classes) {
+
+        // Check whether the histogram is already sorted
+        boolean sorted = true;
+        for (int i = 2; i < classes.length && sorted; i += 2) {
+            sorted = classes[i - 2] <= classes[i];
+        }
+        if (sorted) {
+            return classes;
+        }
+
+        // Sort pairs of class size and number of classes
+        long[] pairs = new long[classes.length / 2];
+        for (int i = 0; i < classes.length; i += 2) {
+            pairs[i / 2] = ((long) classes[i] << 32) | (classes[i + 1] & 0xffffffffL);
+        }
+        Arrays.sort(pairs);
+        int[] result = new int[classes.length];
+        for (int i = 0; i < pairs.length; i++) {
+            result[i * 2] = (int) (pairs[i] >>> 32);
+            result[i * 2 + 1] = (int) pairs[i];
+        }
+        return result;
+    }
+
     /**
      * Compiles the result of the Newton-Rhapson-Algorithm
      * 
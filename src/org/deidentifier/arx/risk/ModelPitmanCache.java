@@ -0,0 +1,268 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.risk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A bounded, thread-safe cache for results of the Pitman model. Results are keyed by
+ * the histogram of class sizes, the sample size, the population size and a description
+ * of the solver's configuration. The least recently used entry is evicted when the capacity
+ * is exceeded. The cache can be saved to and loaded from a file, which allows reusing
+ * results across runs.
+ *
+ * @author Fabian Prasser
+ */
+public class ModelPitmanCache {
+
+    /**
+     * Key
+     *
+     * @author Fabian Prasser
+     */
+    private static class Key {
+
+        /** Hash code */
+        private final int    hashcode;
+        /** The histogram */
+        private final int[]  histogram;
+        /** The sample size */
+        private final int    sampleSize;
+        /** The population size */
+        private final double populationSize;
+        /** The configuration */
+        private final String configuration;
+
+        /**
+         * Creates a new instance
+         *
+         * @param histogram
+         * @param sampleSize
+         * @param populationSize
+         * @param configuration
+         */
+        private Key(int[] histogram, int sampleSize, double populationSize, String configuration) {
+            this.histogram = histogram;
+            this.sampleSize = sampleSize;
+            this.populationSize = populationSize;
+            this.configuration = configuration;
+            int result = Arrays.hashCode(histogram);
+            result = 31 * result + sampleSize;
+            long bits = Double.doubleToLongBits(populationSize);
+            result = 31 * result + (int) (bits ^ (bits >>> 32));
+            result = 31 * result + configuration.hashCode();
+            this.hashcode = result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            Key other = (Key) obj;
+            return this.sampleSize == other.sampleSize &&
+                   Double.doubleToLongBits(this.populationSize) == Double.doubleToLongBits(other.populationSize) &&
+                   this.configuration.equals(other.configuration) &&
+                   Arrays.equals(this.histogram, other.histogram);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+    }
+
+    /** Version of the file format */
+    private static final int                 VERSION = 2;
+
+    /** The entries */
+    private final LinkedHashMap<Key, Double> entries;
+
+    /** Number of hits */
+    private long                             hits   = 0;
+
+    /** Number of misses */
+    private long                             misses = 0;
+
+    /** Whether there are entries which have not been saved */
+    private boolean                          dirty  = false;
+
+    /**
+     * Creates a new instance
+     *
+     * @param capacity
+     */
+    public ModelPitmanCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.entries = new LinkedHashMap<Key, Double>(16, 0.75f, true) {
+            /** SVUID */
+            private static final long serialVersionUID = -7062722913806214398L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Removes all entries and resets the counters
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        dirty = false;
+    }
+
+    /**
+     * Returns the number of hits
+     *
+     * @return
+     */
+    public synchronized long getNumHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of misses
+     *
+     * @return
+     */
+    public synchronized long getNumMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns whether entries have been added since the cache has been created, cleared or saved
+     *
+     * @return
+     */
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Loads entries from the given file, which must have been written with {@link #save(File)}.
+     * Entries are added to the current content.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public synchronized void load(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != VERSION) {
+                throw new IOException("Unsupported file format");
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                int[] histogram = new int[in.readInt()];
+                for (int j = 0; j < histogram.length; j++) {
+                    histogram[j] = in.readInt();
+                }
+                int sampleSize = in.readInt();
+                double populationSize = in.readDouble();
+                String configuration = in.readUTF();
+                entries.put(new Key(histogram, sampleSize, populationSize, configuration), in.readDouble());
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Saves all entries to the given file, the least recently used entry first
+     *
+     * @param file
+     * @throws IOException
+     */
+    public synchronized void save(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Entry<Key, Double> entry : entries.entrySet()) {
+                Key key = entry.getKey();
+                out.writeInt(key.histogram.length);
+                for (int value : key.histogram) {
+                    out.writeInt(value);
+                }
+                out.writeInt(key.sampleSize);
+                out.writeDouble(key.populationSize);
+                out.writeUTF(key.configuration);
+                out.writeDouble(entry.getValue());
+            }
+        } finally {
+            out.close();
+        }
+        dirty = false;
+    }
+
+    /**
+     * Returns the number of entries
+     *
+     * @return
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the cached number of uniques, <code>null</code> if there is none
+     *
+     * @param histogram
+     * @param sampleSize
+     * @param populationSize
+     * @param configuration
+     * @return
+     */
+    synchronized Double get(int[] histogram, int sampleSize, double populationSize, String configuration) {
+        Double result = entries.get(new Key(histogram, sampleSize, populationSize, configuration));
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    /**
+     * Stores the number of uniques
+     *
+     * @param histogram
+     * @param sampleSize
+     * @param populationSize
+     * @param configuration
+     * @param numUniques
+     */
+    synchronized void put(int[] histogram, int sampleSize, double populationSize, String configuration, double numUniques) {
+        entries.put(new Key(Arrays.copyOf(histogram, histogram.length), sampleSize, populationSize, configuration), numUniques);
+        dirty = true;
+    }
+}
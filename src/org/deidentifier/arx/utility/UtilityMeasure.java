@@ -17,6 +17,10 @@
 
 package org.deidentifier.arx.utility;
 
+import org.deidentifier.arx.utility.util.EquivalenceClassStatistics;
+import org.deidentifier.arx.utility.util.OffHeapGroupify;
+import org.deidentifier.arx.utility.util.PartitionedGroupify;
+
 /**
  * Implementation of utility measures
  * 
@@ -24,6 +28,56 @@ package org.deidentifier.arx.utility;
  */
 public abstract class UtilityMeasure<T> {
 
+    /** Hook for benchmarking purposes*/
+    private static int threads = 1;
+
+    /** 
+     * Hook for benchmarking purposes. Sets the number of threads used by measures which
+     * group rows into equivalence classes.
+     * @param threads
+     */
+    public static void hookSetNumThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        UtilityMeasure.threads = threads;
+    }
+
+    /** Hook for benchmarking purposes*/
+    private static boolean offHeap = false;
+
+    /** 
+     * Hook for benchmarking purposes. When enabled, measures which group rows into equivalence
+     * classes store the classes outside of the Java heap, see {@link OffHeapGroupify} for the
+     * required JVM options.
+     * @param use
+     */
+    public static void hookUseOffHeap(boolean use) {
+        UtilityMeasure.offHeap = use;
+    }
+
+    /**
+     * Returns the number of threads used for grouping rows
+     * @return
+     */
+    protected static int getNumThreads() {
+        return threads;
+    }
+
+    /**
+     * Groups the given rows and returns statistics about the resulting equivalence classes
+     * @param input
+     * @return
+     */
+    protected static EquivalenceClassStatistics getStatistics(String[][] input) {
+        PartitionedGroupify groupify = new PartitionedGroupify(input, threads, offHeap);
+        try {
+            return new EquivalenceClassStatistics(groupify);
+        } finally {
+            groupify.close();
+        }
+    }
+
     public  Utility<T> evaluate(String[][] input) {
         return evaluate(input, null);
     }
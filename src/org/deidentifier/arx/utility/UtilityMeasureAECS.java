@@ -17,9 +17,8 @@
 
 package org.deidentifier.arx.utility;
 
-import org.deidentifier.arx.utility.util.HashGroupify;
-import org.deidentifier.arx.utility.util.HashGroupifyEntry;
-import org.deidentifier.arx.utility.util.StringArray;
+import org.deidentifier.arx.utility.util.EquivalenceClassStatistics;
+import org.deidentifier.arx.utility.util.EquivalenceClasses;
 
 /**
  * Implementation of the AECS measure, as proposed in:<br>
@@ -37,20 +36,24 @@ public class UtilityMeasureAECS extends UtilityMeasure<Double>{
      * @return
      */
     public Utility<Double> evaluate(String[][] input, int[] transformation) {
-        
-        HashGroupify<StringArray> table = new HashGroupify<StringArray>(10);
-        for (String[] row : input) {
-            table.add(new StringArray(row));
-        }
-        
-        HashGroupifyEntry<StringArray> e = table.first();
-        double count = 1;
-        double sum = e.getCount();
-        while (e.hasNext()) {
-            e = e.next();
-            count++;
-            sum += e.getCount();
-        }
-        return new UtilityDouble(sum / count);
+        return evaluate(getStatistics(input));
+    }
+
+    /**
+     * Evaluates the utility measure on statistics, which may be shared with other measures
+     * @param statistics
+     * @return
+     */
+    public Utility<Double> evaluate(EquivalenceClassStatistics statistics) {
+        return new UtilityDouble(statistics.getAverageClassSize());
+    }
+
+    /**
+     * Evaluates the utility measure on grouped data, e.g. data which is grouped outside of the heap
+     * @param partitions Disjoint partitions of the classes
+     * @return
+     */
+    public Utility<Double> evaluate(EquivalenceClasses... partitions) {
+        return evaluate(new EquivalenceClassStatistics(partitions));
     }
 }
@@ -17,9 +17,8 @@
 
 package org.deidentifier.arx.utility;
 
-import org.deidentifier.arx.utility.util.HashGroupify;
-import org.deidentifier.arx.utility.util.HashGroupifyEntry;
-import org.deidentifier.arx.utility.util.StringArray;
+import org.deidentifier.arx.utility.util.EquivalenceClassStatistics;
+import org.deidentifier.arx.utility.util.EquivalenceClasses;
 
 
 /**
@@ -38,48 +37,24 @@ public class UtilityMeasureDiscernibility extends UtilityMeasure<Double>{
      * @return
      */
     public Utility<Double> evaluate(String[][] input, int[] transformation) {
-        
-        HashGroupify<StringArray> table = new HashGroupify<StringArray>(10);
-        for (String[] row : input) {
-            table.add(new StringArray(row));
-        }
-     
-        HashGroupifyEntry<StringArray> e = table.first();
-        double sum = getPenalty(e, input.length);
-        while (e.hasNext()) {
-            e = e.next();
-            sum += getPenalty(e, input.length);
-        }
-        return new UtilityDouble(sum);
+        return evaluate(getStatistics(input));
     }
 
     /**
-     * Returns the penalty for the given table
-     * @param entry
-     * @param rows
+     * Evaluates the utility measure on statistics, which may be shared with other measures
+     * @param statistics
      * @return
      */
-    private double getPenalty(HashGroupifyEntry<StringArray> entry, double rows) {
-
-        if (isSuppressed(entry)) {
-            return entry.getCount() * rows;
-        } else {
-            return entry.getCount() * entry.getCount();
-        }
+    public Utility<Double> evaluate(EquivalenceClassStatistics statistics) {
+        return new UtilityDouble(statistics.getDiscernibility());
     }
 
     /**
-     * We assume that an entry is suppressed, if all values are equal
-     * @param entry
+     * Evaluates the utility measure on grouped data, e.g. data which is grouped outside of the heap
+     * @param partitions Disjoint partitions of the classes
      * @return
      */
-    private boolean isSuppressed(HashGroupifyEntry<StringArray> entry) {
-        String[] array = entry.getElement().values;
-        for (int i=1; i<array.length; i++) {
-            if (!array[i-1].equals(array[i])) {
-                return false;
-            }
-        }
-        return true;
+    public Utility<Double> evaluate(EquivalenceClasses... partitions) {
+        return evaluate(new EquivalenceClassStatistics(partitions));
     }
 }
@@ -0,0 +1,236 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.utility.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statistics about the equivalence classes of a dataset, which are collected in a single
+ * pass over the grouped rows. A class is assumed to be suppressed, if all of its values
+ * are equal. Statistics can be computed once per dataset and passed to multiple
+ * class-based measures.
+ * 
+ * @author Fabian Prasser
+ */
+public class EquivalenceClassStatistics {
+
+    /** Class sizes below this bound are counted in an array, larger sizes in a map */
+    private static final int SMALL_SIZES = 1 << 16;
+
+    /** Number of rows */
+    private final long   numRows;
+    /** Number of classes */
+    private final int    numClasses;
+    /** Number of suppressed classes */
+    private final int    numSuppressedClasses;
+    /** Number of suppressed rows */
+    private final long   numSuppressedRows;
+    /** Number of classes of size one which are not suppressed */
+    private final int    numSampleUniques;
+    /** Discernibility */
+    private final double discernibility;
+    /** Pairs of class sizes and numbers of classes in ascending order of class size */
+    private final int[]  histogram;
+
+    /**
+     * Groups the given dataset and collects the statistics
+     * 
+     * @param input
+     * @param threads
+     */
+    public EquivalenceClassStatistics(String[][] input, int threads) {
+        this(new PartitionedGroupify(input, threads));
+    }
+
+    /**
+     * Collects the statistics
+     * 
+     * @param groupify
+     */
+    public EquivalenceClassStatistics(PartitionedGroupify groupify) {
+        this(getPartitions(groupify));
+    }
+
+    /**
+     * Collects the statistics, e.g. for data which is grouped outside of the heap. Class sizes
+     * are streamed into a histogram, so that memory requirements do not depend on the number
+     * of classes.
+     * 
+     * @param partitions Disjoint partitions of the classes
+     */
+    public EquivalenceClassStatistics(EquivalenceClasses... partitions) {
+
+        long rows = 0;
+        long classes = 0;
+        long suppressedClasses = 0;
+        long suppressedRows = 0;
+        long uniques = 0;
+        double discernibility = 0;
+        int[] small = new int[16];
+        Map<Integer, int[]> large = new HashMap<Integer, int[]>();
+
+        // Single pass
+        for (EquivalenceClasses table : partitions) {
+            for (int i = 0; i < table.size(); i++) {
+                int count = table.getCount(i);
+                rows += count;
+                classes++;
+                if (count < SMALL_SIZES) {
+                    if (count >= small.length) {
+                        small = Arrays.copyOf(small, Math.min(SMALL_SIZES, Integer.highestOneBit(count) << 1));
+                    }
+                    small[count]++;
+                } else {
+                    int[] counter = large.get(count);
+                    if (counter == null) {
+                        counter = new int[1];
+                        large.put(count, counter);
+                    }
+                    counter[0]++;
+                }
+                if (table.isConstant(i)) {
+                    suppressedClasses++;
+                    suppressedRows += count;
+                } else {
+                    discernibility += (double) count * (double) count;
+                    if (count == 1) {
+                        uniques++;
+                    }
+                }
+            }
+        }
+        if (classes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many classes: " + classes);
+        }
+
+        // Each row of a suppressed class is penalized with the number of rows
+        discernibility += (double) suppressedRows * (double) rows;
+
+        // Histogram
+        Integer[] sizes = large.keySet().toArray(new Integer[large.size()]);
+        Arrays.sort(sizes);
+        int[] histogram = new int[(small.length + sizes.length) * 2];
+        int length = 0;
+        for (int size = 0; size < small.length; size++) {
+            if (small[size] != 0) {
+                histogram[length++] = size;
+                histogram[length++] = small[size];
+            }
+        }
+        for (Integer size : sizes) {
+            histogram[length++] = size;
+            histogram[length++] = large.get(size)[0];
+        }
+
+        this.numRows = rows;
+        this.numClasses = (int) classes;
+        this.numSuppressedClasses = (int) suppressedClasses;
+        this.numSuppressedRows = suppressedRows;
+        this.numSampleUniques = (int) uniques;
+        this.discernibility = discernibility;
+        this.histogram = Arrays.copyOf(histogram, length);
+    }
+
+    /**
+     * Returns the partitions of the given operator
+     * 
+     * @param groupify
+     * @return
+     */
+    private static EquivalenceClasses[] getPartitions(PartitionedGroupify groupify) {
+        EquivalenceClasses[] result = new EquivalenceClasses[groupify.getNumPartitions()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = groupify.getPartition(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the average equivalence class size
+     * 
+     * @return
+     */
+    public double getAverageClassSize() {
+        return (double) numRows / (double) numClasses;
+    }
+
+    /**
+     * Returns the discernibility, where each row of a suppressed class is penalized with the number of rows
+     * 
+     * @return
+     */
+    public double getDiscernibility() {
+        return discernibility;
+    }
+
+    /**
+     * Returns pairs of class sizes and numbers of classes in ascending order of class size
+     * 
+     * @return
+     */
+    public int[] getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Returns the number of classes
+     * 
+     * @return
+     */
+    public int getNumClasses() {
+        return numClasses;
+    }
+
+    /**
+     * Returns the number of rows
+     * 
+     * @return
+     */
+    public long getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * Returns the number of classes of size one which are not suppressed
+     * 
+     * @return
+     */
+    public int getNumSampleUniques() {
+        return numSampleUniques;
+    }
+
+    /**
+     * Returns the number of suppressed classes
+     * 
+     * @return
+     */
+    public int getNumSuppressedClasses() {
+        return numSuppressedClasses;
+    }
+
+    /**
+     * Returns the number of suppressed rows
+     * 
+     * @return
+     */
+    public long getNumSuppressedRows() {
+        return numSuppressedRows;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.utility.util;
+
+/**
+ * Equivalence classes of dictionary-encoded rows, which are identified by their index
+ * in the order in which they were first seen.
+ * 
+ * @author Fabian Prasser
+ */
+public interface EquivalenceClasses {
+
+    /**
+     * Returns the size of the class with the given index
+     * 
+     * @param index
+     * @return
+     */
+    public int getCount(int index);
+
+    /**
+     * Returns the value of the class with the given index in the given column
+     * 
+     * @param index
+     * @param column
+     * @return
+     */
+    public int getValue(int index, int column);
+
+    /**
+     * Returns the number of columns
+     * 
+     * @return
+     */
+    public int getWidth();
+
+    /**
+     * Returns whether all values of the class with the given index are equal
+     * 
+     * @param index
+     * @return
+     */
+    public boolean isConstant(int index);
+
+    /**
+     * Returns the current number of classes
+     * 
+     * @return
+     */
+    public int size();
+}
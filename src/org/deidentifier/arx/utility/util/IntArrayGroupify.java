@@ -0,0 +1,245 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.utility.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash groupify operator for dictionary-encoded rows of a fixed width. It implements a
+ * hash table with open addressing and linear probing. Equivalence classes are stored in
+ * flat arrays and are identified by their index, which reflects the order of insertion.
+ * 
+ * @author Fabian Prasser
+ */
+public class IntArrayGroupify implements EquivalenceClasses {
+
+    /** Load factor. */
+    private static final float loadFactor = 0.75f;
+
+    /** Number of columns. */
+    private final int          width;
+
+    /** Slots of the hash table, containing the index of a class plus one, 0 if empty. */
+    private int[]              table;
+
+    /** Rows of all classes, one after another. */
+    private int[]              rows;
+
+    /** Hash codes of all classes. */
+    private int[]              hashcodes;
+
+    /** Sizes of all classes. */
+    private int[]              counts;
+
+    /** Current number of classes. */
+    private int                count;
+
+    /**
+     * Maximum number of elements that can be put in this map before having to
+     * rehash.
+     */
+    private int                threshold;
+
+    /**
+     * Constructs a new hash groupify operator.
+     * 
+     * @param capacity
+     *            The capacity
+     * @param width
+     *            The number of columns
+     */
+    public IntArrayGroupify(int capacity, int width) {
+        capacity = calculateCapacity(capacity);
+        this.width = width;
+        this.count = 0;
+        this.table = new int[capacity];
+        this.threshold = calculateThreshold(capacity);
+        this.hashcodes = new int[threshold + 1];
+        this.counts = new int[threshold + 1];
+        this.rows = new int[calculateRowsLength(threshold)];
+    }
+
+    /**
+     * Adds a row. The array is not referenced afterwards and may be reused.
+     * 
+     * @param row
+     */
+    public void add(int[] row) {
+        add(row, 1);
+    }
+
+    /**
+     * Adds the given number of copies of a row. The array is not referenced afterwards.
+     * 
+     * @param row
+     * @param count
+     */
+    public void add(int[] row, int count) {
+
+        // Find or create class
+        final int hash = hashCode(row);
+        int slot = hash & (table.length - 1);
+        while (table[slot] != 0) {
+            int index = table[slot] - 1;
+            if (hashcodes[index] == hash && equals(row, index)) {
+                counts[index] += count;
+                return;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+
+        // Create
+        int index = this.count++;
+        hashcodes[index] = hash;
+        counts[index] = count;
+        System.arraycopy(row, 0, rows, index * width, width);
+        table[slot] = index + 1;
+        if (this.count > threshold) {
+            rehash();
+        }
+    }
+
+    @Override
+    public int getCount(int index) {
+        return counts[index];
+    }
+
+    @Override
+    public int getValue(int index, int column) {
+        return rows[index * width + column];
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public boolean isConstant(int index) {
+        int offset = index * width;
+        for (int i = offset + 1; i < offset + width; i++) {
+            if (rows[i] != rows[offset]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Calculates a new capacity.
+     * 
+     * @param x
+     *            the parameter
+     * @return the capacity
+     */
+    private int calculateCapacity(int x) {
+        if (x >= (1 << 30)) { return 1 << 30; }
+        if (x <= 1) { return 16; }
+        x = x - 1;
+        x |= x >> 1;
+        x |= x >> 2;
+        x |= x >> 4;
+        x |= x >> 8;
+        x |= x >> 16;
+        return x + 1;
+    }
+
+    /**
+     * Computes the length of the array of rows for the given threshold.
+     * 
+     * @param threshold
+     * @return
+     */
+    private int calculateRowsLength(final int threshold) {
+        long length = (long) (threshold + 1) * (long) width;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many classes");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Computes the threshold for rehashing.
+     * 
+     * @param buckets
+     * @return
+     */
+    private int calculateThreshold(final int buckets) {
+        return (int) (buckets * loadFactor);
+    }
+
+    /**
+     * Compares the row to the class with the given index
+     * 
+     * @param row
+     * @param index
+     * @return
+     */
+    private boolean equals(int[] row, int index) {
+        int offset = index * width;
+        for (int i = 0; i < width; i++) {
+            if (row[i] != rows[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes a hash code
+     * 
+     * @param row
+     * @return
+     */
+    private int hashCode(int[] row) {
+        int result = 23;
+        for (int i = 0; i < width; i++) {
+            result = (result * 31) + row[i];
+        }
+        return result ^ (result >>> 16);
+    }
+
+    /**
+     * Rehashes this operator. The capacity can not be increased beyond 2^30 slots.
+     */
+    private void rehash() {
+        if (table.length >= (1 << 30)) {
+            throw new IllegalStateException("Too many classes");
+        }
+        int length = table.length << 1;
+        int rowsLength = calculateRowsLength(calculateThreshold(length));
+        int[] newtable = new int[length];
+        for (int index = 0; index < count; index++) {
+            int slot = hashcodes[index] & (length - 1);
+            while (newtable[slot] != 0) {
+                slot = (slot + 1) & (length - 1);
+            }
+            newtable[slot] = index + 1;
+        }
+        table = newtable;
+        threshold = calculateThreshold(length);
+        hashcodes = Arrays.copyOf(hashcodes, threshold + 1);
+        counts = Arrays.copyOf(counts, threshold + 1);
+        rows = Arrays.copyOf(rows, rowsLength);
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.utility.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * A hash groupify operator for dictionary-encoded rows of a fixed width, which stores its
+ * data outside of the Java heap in direct buffers. It implements a hash table with open
+ * addressing and linear probing. Classes are stored one after another as records of a
+ * hash code, a size and the row, and are identified by their index, which reflects the
+ * order of insertion. Memory is allocated in segments, so that growing never copies
+ * records, and the table is rehashed in place after adding segments.<br>
+ * <br>
+ * Direct memory is limited by the JVM option -XX:MaxDirectMemorySize, which defaults to the
+ * maximal heap size and must be raised for large datasets. Instances should be closed when
+ * they are no longer needed.
+ * 
+ * @author Fabian Prasser
+ */
+public class OffHeapGroupify implements EquivalenceClasses {
+
+    /**
+     * An array of integers, which is stored in segments of direct buffers
+     * 
+     * @author Fabian Prasser
+     */
+    private static class IntSegments {
+
+        /** Number of bits addressing an element within a segment */
+        private static final int SEGMENT_BITS = 16;
+        /** Size of a segment */
+        private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+        /** Mask for addressing an element within a segment */
+        private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+        /** The segments */
+        private IntBuffer[]      segments     = new IntBuffer[0];
+
+        /**
+         * Ensures that the given number of elements can be stored
+         * 
+         * @param length
+         */
+        private void ensureCapacity(long length) {
+            int required = (int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+            if (required > segments.length) {
+                int current = segments.length;
+                segments = Arrays.copyOf(segments, Math.max(required, current + (current >> 1)));
+                for (int i = current; i < segments.length; i++) {
+                    segments[i] = ByteBuffer.allocateDirect(SEGMENT_SIZE * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+                }
+            }
+        }
+
+        /**
+         * Releases all segments. Their memory is returned when the buffers are garbage collected,
+         * which happens at the latest when further direct memory is allocated.
+         */
+        private void release() {
+            segments = new IntBuffer[0];
+        }
+
+        /**
+         * Sets the given number of elements to zero
+         * 
+         * @param length
+         */
+        private void clear(long length) {
+            for (long i = 0; i < length; i++) {
+                set(i, 0);
+            }
+        }
+
+        /**
+         * Returns an element
+         * 
+         * @param index
+         * @return
+         */
+        private int get(long index) {
+            return segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & SEGMENT_MASK));
+        }
+
+        /**
+         * Sets an element
+         * 
+         * @param index
+         * @param value
+         */
+        private void set(long index, int value) {
+            segments[(int) (index >>> SEGMENT_BITS)].put((int) (index & SEGMENT_MASK), value);
+        }
+    }
+
+    /** Offset of the hash code in a record. */
+    private static final int   OFFSET_HASH  = 0;
+
+    /** Offset of the size in a record. */
+    private static final int   OFFSET_COUNT = 1;
+
+    /** Offset of the row in a record. */
+    private static final int   OFFSET_ROW   = 2;
+
+    /** Load factor. */
+    private static final float loadFactor   = 0.75f;
+
+    /** Number of columns. */
+    private final int          width;
+
+    /** Number of integers per record. */
+    private final int          recordSize;
+
+    /** Slots of the hash table, containing the index of a class plus one, 0 if empty. */
+    private final IntSegments  table        = new IntSegments();
+
+    /** Records of all classes. */
+    private final IntSegments  records      = new IntSegments();
+
+    /** Number of slots. */
+    private long               capacity;
+
+    /** Current number of classes. */
+    private int                count;
+
+    /** Number of rows. */
+    private long               rows;
+
+    /**
+     * Maximum number of elements that can be put in this map before having to
+     * rehash.
+     */
+    private long               threshold;
+
+    /**
+     * Constructs a new hash groupify operator.
+     * 
+     * @param capacity
+     *            The capacity
+     * @param width
+     *            The number of columns
+     */
+    public OffHeapGroupify(long capacity, int width) {
+        this.width = width;
+        this.recordSize = OFFSET_ROW + width;
+        this.capacity = calculateCapacity(capacity);
+        this.threshold = calculateThreshold(this.capacity);
+        this.table.ensureCapacity(this.capacity);
+        this.table.clear(this.capacity);
+    }
+
+    /**
+     * Adds a row. The array is not referenced afterwards and may be reused.
+     * 
+     * @param row
+     */
+    public void add(int[] row) {
+        add(row, 1);
+    }
+
+    /**
+     * Adds the given number of copies of a row. The array is not referenced afterwards.
+     * 
+     * @param row
+     * @param count
+     */
+    public void add(int[] row, int count) {
+
+        // Find or create class
+        final int hash = hashCode(row);
+        long slot = hash & (capacity - 1);
+        int entry;
+        while ((entry = table.get(slot)) != 0) {
+            long record = (long) (entry - 1) * recordSize;
+            if (records.get(record + OFFSET_HASH) == hash && equals(row, record)) {
+                int current = records.get(record + OFFSET_COUNT);
+                if (current > Integer.MAX_VALUE - count) {
+                    throw new IllegalStateException("Class too large");
+                }
+                records.set(record + OFFSET_COUNT, current + count);
+                rows += count;
+                return;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+
+        // Create
+        if (this.count == Integer.MAX_VALUE - 1) {
+            throw new IllegalStateException("Too many classes");
+        }
+        int index = this.count++;
+        long record = (long) index * recordSize;
+        records.ensureCapacity(record + recordSize);
+        records.set(record + OFFSET_HASH, hash);
+        records.set(record + OFFSET_COUNT, count);
+        for (int i = 0; i < width; i++) {
+            records.set(record + OFFSET_ROW + i, row[i]);
+        }
+        table.set(slot, index + 1);
+        rows += count;
+        if (this.count > threshold) {
+            rehash();
+        }
+    }
+
+    /**
+     * Releases the direct buffers. The instance must not be used afterwards.
+     */
+    public void close() {
+        table.release();
+        records.release();
+        count = 0;
+        rows = 0;
+    }
+
+    @Override
+    public int getCount(int index) {
+        return records.get((long) index * recordSize + OFFSET_COUNT);
+    }
+
+    /**
+     * Returns the number of rows
+     * 
+     * @return
+     */
+    public long getNumRows() {
+        return rows;
+    }
+
+    @Override
+    public int getValue(int index, int column) {
+        return records.get((long) index * recordSize + OFFSET_ROW + column);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public boolean isConstant(int index) {
+        long record = (long) index * recordSize + OFFSET_ROW;
+        int first = records.get(record);
+        for (int i = 1; i < width; i++) {
+            if (records.get(record + i) != first) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Calculates a new capacity.
+     * 
+     * @param x
+     *            the parameter
+     * @return the capacity
+     */
+    private long calculateCapacity(long x) {
+        if (x <= 16) { return 16; }
+        return Long.highestOneBit(x - 1) << 1;
+    }
+
+    /**
+     * Computes the threshold for rehashing.
+     * 
+     * @param buckets
+     * @return
+     */
+    private long calculateThreshold(final long buckets) {
+        return (long) (buckets * loadFactor);
+    }
+
+    /**
+     * Compares the row to the given record
+     * 
+     * @param row
+     * @param record
+     * @return
+     */
+    private boolean equals(int[] row, long record) {
+        for (int i = 0; i < width; i++) {
+            if (row[i] != records.get(record + OFFSET_ROW + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes a hash code
+     * 
+     * @param row
+     * @return
+     */
+    private int hashCode(int[] row) {
+        int result = 23;
+        for (int i = 0; i < width; i++) {
+            result = (result * 31) + row[i];
+        }
+        return result ^ (result >>> 16);
+    }
+
+    /**
+     * Rehashes this operator in place. The table grows by adding segments, and all classes
+     * are re-inserted from their records.
+     */
+    private void rehash() {
+        capacity = capacity << 1;
+        threshold = calculateThreshold(capacity);
+        table.ensureCapacity(capacity);
+        table.clear(capacity);
+        for (int index = 0; index < count; index++) {
+            long slot = records.get((long) index * recordSize + OFFSET_HASH) & (capacity - 1);
+            while (table.get(slot) != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            table.set(slot, index + 1);
+        }
+    }
+}
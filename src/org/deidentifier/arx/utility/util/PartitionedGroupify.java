@@ -0,0 +1,225 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.utility.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Groups rows into equivalence classes using multiple threads. Rows are partitioned by
+ * their hash code, so that equal rows end up in the same partition. Each partition is
+ * grouped by one thread with its own dictionary. Partitions are disjoint, so the sizes
+ * of the classes in all partitions are exact without merging. Partitions can be stored
+ * outside of the Java heap, in which case the instance should be closed when it is no
+ * longer needed.
+ * 
+ * @author Fabian Prasser
+ */
+public class PartitionedGroupify {
+
+    /** The partitions */
+    private final EquivalenceClasses[] partitions;
+
+    /** The dictionaries of the partitions */
+    private final StringDictionary[] dictionaries;
+
+    /** Whether partitions are stored outside of the heap */
+    private final boolean            offHeap;
+
+    /**
+     * Groups the given rows
+     * 
+     * @param input
+     * @param threads
+     */
+    public PartitionedGroupify(final String[][] input, int threads) {
+        this(input, threads, false);
+    }
+
+    /**
+     * Groups the given rows
+     * 
+     * @param input
+     * @param threads
+     * @param offHeap Whether partitions are stored outside of the heap, see {@link OffHeapGroupify}
+     */
+    public PartitionedGroupify(final String[][] input, int threads, boolean offHeap) {
+
+        final int width = input.length == 0 ? 0 : input[0].length;
+        final int numPartitions = Math.max(1, Math.min(threads, input.length));
+        this.partitions = new EquivalenceClasses[numPartitions];
+        this.dictionaries = new StringDictionary[numPartitions];
+        this.offHeap = offHeap;
+
+        // Sequential
+        if (numPartitions == 1) {
+            group(input, width, null, 0);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numPartitions);
+        boolean success = false;
+        try {
+
+            // Assign rows to partitions
+            final int[] assignment = new int[input.length];
+            final int chunk = (input.length + numPartitions - 1) / numPartitions;
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < numPartitions; i++) {
+                final int begin = i * chunk;
+                final int end = Math.min(input.length, begin + chunk);
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int row = begin; row < end; row++) {
+                            int hash = Arrays.hashCode(input[row]);
+                            hash ^= (hash >>> 16);
+                            assignment[row] = (hash & Integer.MAX_VALUE) % numPartitions;
+                        }
+                    }
+                }));
+            }
+            await(futures);
+
+            // Group partitions
+            futures.clear();
+            for (int i = 0; i < numPartitions; i++) {
+                final int partition = i;
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        group(input, width, assignment, partition);
+                    }
+                }));
+            }
+            await(futures);
+            success = true;
+
+        } finally {
+            executor.shutdown();
+            if (!success) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Releases partitions which are stored outside of the heap. The instance must not be used afterwards.
+     */
+    public void close() {
+        for (EquivalenceClasses partition : partitions) {
+            if (partition instanceof OffHeapGroupify) {
+                ((OffHeapGroupify) partition).close();
+            }
+        }
+    }
+
+    /**
+     * Returns the dictionary used for encoding the given partition
+     * 
+     * @param partition
+     * @return
+     */
+    public StringDictionary getDictionary(int partition) {
+        return dictionaries[partition];
+    }
+
+    /**
+     * Returns the number of partitions
+     * 
+     * @return
+     */
+    public int getNumPartitions() {
+        return partitions.length;
+    }
+
+    /**
+     * Returns the given partition
+     * 
+     * @param partition
+     * @return
+     */
+    public EquivalenceClasses getPartition(int partition) {
+        return partitions[partition];
+    }
+
+    /**
+     * Returns the total number of classes
+     * 
+     * @return
+     */
+    public int size() {
+        int size = 0;
+        for (EquivalenceClasses partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    /**
+     * Waits for the given tasks
+     * 
+     * @param futures
+     */
+    private void await(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Groups all rows assigned to the given partition
+     * 
+     * @param input
+     * @param width
+     * @param assignment Partition of each row, null if there is only one partition
+     * @param partition
+     */
+    private void group(String[][] input, int width, int[] assignment, int partition) {
+        StringDictionary dictionary = new StringDictionary();
+        IntArrayGroupify table = offHeap ? null : new IntArrayGroupify(10, width);
+        OffHeapGroupify offHeapTable = offHeap ? new OffHeapGroupify(10, width) : null;
+        partitions[partition] = offHeap ? offHeapTable : table;
+        int[] buffer = new int[width];
+        for (int row = 0; row < input.length; row++) {
+            if (assignment == null || assignment[row] == partition) {
+                if (offHeap) {
+                    offHeapTable.add(dictionary.encode(input[row], buffer));
+                } else {
+                    table.add(dictionary.encode(input[row], buffer));
+                }
+            }
+        }
+        dictionaries[partition] = dictionary;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2015 Florian Kohlmayer, Fabian Prasser
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.utility.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A dictionary, which encodes strings as consecutive integers. The dictionary is shared
+ * by all columns, i.e. equal strings have equal codes, regardless of the column.
+ * 
+ * @author Fabian Prasser
+ */
+public class StringDictionary {
+
+    /** Codes */
+    private final Map<String, Integer> codes  = new HashMap<String, Integer>();
+    /** Values */
+    private final List<String>         values = new ArrayList<String>();
+
+    /**
+     * Returns the value for the given code
+     * 
+     * @param code
+     * @return
+     */
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * Returns the code for the given value. Creates a new code, if required.
+     * 
+     * @param value
+     * @return
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Encodes the given row into the given buffer
+     * 
+     * @param row
+     * @param buffer
+     * @return The buffer
+     */
+    public int[] encode(String[] row, int[] buffer) {
+        for (int i = 0; i < row.length; i++) {
+            buffer[i] = encode(row[i]);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns the number of codes
+     * 
+     * @return
+     */
+    public int size() {
+        return values.size();
+    }
+}